@@ -0,0 +1,78 @@
+package com.trycky.tryckysrtp;
+
+import net.minecraft.nbt.CompoundTag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cooldown store lookups/updates and NBT save, from 1k to 1M active cooldowns.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CooldownDataBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int entries;
+
+    private RtpCooldownData data;
+    private UUID[] ids;
+    private UUID missing;
+    private long expiry;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final Random random = new Random(42L);
+        expiry = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+
+        data = new RtpCooldownData();
+        ids = new UUID[entries];
+        for (int i = 0; i < entries; i++) {
+            ids[i] = new UUID(random.nextLong(), random.nextLong());
+            data.setNextAllowedEpochMillis(ids[i], expiry);
+        }
+        missing = new UUID(random.nextLong(), random.nextLong());
+    }
+
+    private UUID nextId() {
+        final UUID id = ids[next];
+        next = (next + 1 == ids.length) ? 0 : next + 1;
+        return id;
+    }
+
+    @Benchmark
+    public long getHit() {
+        return data.getNextAllowedEpochMillis(nextId());
+    }
+
+    @Benchmark
+    public long getMiss() {
+        return data.getNextAllowedEpochMillis(missing);
+    }
+
+    @Benchmark
+    public void setExisting() {
+        data.setNextAllowedEpochMillis(nextId(), expiry);
+    }
+
+    /**
+     * Average over warmed-up iterations, like the other benchmarks: a single cold shot mostly measures the interpreter.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public CompoundTag save() {
+        return data.save(new CompoundTag(), null);
+    }
+}
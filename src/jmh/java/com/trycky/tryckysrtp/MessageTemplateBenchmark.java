@@ -0,0 +1,66 @@
+package com.trycky.tryckysrtp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Message templates: compile (config load) and render (every message / actionbar refresh).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MessageTemplateBenchmark {
+
+    private static final String SUCCESS = "Teleported to %x% %y% %z% in %dimension%.";
+    private static final String ACTIONBAR = "Cooldown: %remaining% %bar% (%unknown%)";
+
+    private RtpTemplate success;
+    private RtpTemplate actionbar;
+    private String[] successValues;
+    private String[] actionbarValues;
+
+    @Setup
+    public void setup() {
+        success = RtpTemplate.compile(SUCCESS);
+        actionbar = RtpTemplate.compile(ACTIONBAR);
+
+        successValues = new String[RtpTemplate.PLACEHOLDER_COUNT];
+        successValues[RtpTemplate.Placeholder.PLAYER.ordinal()] = "Steve";
+        successValues[RtpTemplate.Placeholder.DIMENSION.ordinal()] = "minecraft:overworld";
+        successValues[RtpTemplate.Placeholder.X.ordinal()] = "-1234";
+        successValues[RtpTemplate.Placeholder.Y.ordinal()] = "72";
+        successValues[RtpTemplate.Placeholder.Z.ordinal()] = "4321";
+
+        actionbarValues = new String[RtpTemplate.PLACEHOLDER_COUNT];
+        actionbarValues[RtpTemplate.Placeholder.REMAINING.ordinal()] = RtpMessages.formatDuration(Duration.ofSeconds(95));
+        actionbarValues[RtpTemplate.Placeholder.BAR.ordinal()] = "[########--------]";
+    }
+
+    @Benchmark
+    public RtpTemplate compile() {
+        return RtpTemplate.compile(ACTIONBAR);
+    }
+
+    @Benchmark
+    public String renderSuccess() {
+        return success.render(successValues);
+    }
+
+    @Benchmark
+    public String renderActionbar() {
+        return actionbar.render(actionbarValues);
+    }
+
+    @Benchmark
+    public String formatDuration() {
+        return RtpMessages.formatDuration(Duration.ofSeconds(3725));
+    }
+}
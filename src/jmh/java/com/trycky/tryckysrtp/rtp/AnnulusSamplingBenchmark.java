@@ -0,0 +1,40 @@
+package com.trycky.tryckysrtp.rtp;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.util.RandomSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Candidate X/Z sampling (uniform in the annulus + min distance from spawn).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AnnulusSamplingBenchmark {
+
+    @Param({"0", "500"})
+    public int minDistanceFromSpawn;
+
+    private RandomSource rng;
+    private BlockPos center;
+
+    @Setup
+    public void setup() {
+        rng = RandomSource.create(42L);
+        center = new BlockPos(128, 64, -256);
+    }
+
+    @Benchmark
+    public BlockPos pickRandomXZInAnnulus() {
+        return RtpSafeTeleport.pickRandomXZInAnnulus(rng, center, 200, 5000, minDistanceFromSpawn);
+    }
+}
@@ -0,0 +1,141 @@
+package com.trycky.tryckysrtp.rtp;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Column scan ({@link RtpColumnScanner#scan}) on synthetic overworld-height columns (-64..319) of real block states.
+ * Every read goes through {@link RtpBlockSafetyTable#flags}, as in game; only the chunk section reads are left out.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ColumnScanBenchmark {
+
+    private static final int MIN_Y = -64;
+    private static final int MAX_BUILD = 320;
+
+    /**
+     * plains: stone up to 66, dirt, grass at 70, air above (found quickly).
+     * ocean: stone up to 38, sand up to 40, water up to 62 (no safe spot, full scan).
+     * caves: deepslate/stone with cave air pockets every 12 blocks up to 90 (mixed sections, many candidates).
+     */
+    @Param({"plains", "ocean", "caves"})
+    public String terrain;
+
+    @Param({"false", "true"})
+    public boolean surfaceOnly;
+
+    private StateColumn column;
+    private RtpColumnScanner.Rules rules;
+    private int surfaceY;
+
+    @Setup
+    public void setup() {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+        // No datapack here, so no tag contents: the dangerous tag would match nothing anyway
+        RtpBlockSafetyTable.rebuild(null);
+
+        final BlockState[] states = new BlockState[MAX_BUILD - MIN_Y];
+        int top = MIN_Y;
+        for (int y = MIN_Y; y < MAX_BUILD; y++) {
+            final BlockState state = switch (terrain) {
+                case "plains" -> (y <= 66) ? Blocks.STONE.defaultBlockState()
+                        : (y < 70) ? Blocks.DIRT.defaultBlockState()
+                        : (y == 70) ? Blocks.GRASS_BLOCK.defaultBlockState()
+                        : Blocks.AIR.defaultBlockState();
+                case "ocean" -> (y <= 38) ? Blocks.STONE.defaultBlockState()
+                        : (y <= 40) ? Blocks.SAND.defaultBlockState()
+                        : (y <= 62) ? Blocks.WATER.defaultBlockState()
+                        : Blocks.AIR.defaultBlockState();
+                default -> (y > 90) ? Blocks.AIR.defaultBlockState()
+                        : (Math.floorMod(y, 12) < 3 && y > MIN_Y + 4) ? Blocks.CAVE_AIR.defaultBlockState()
+                        : (y < 0) ? Blocks.DEEPSLATE.defaultBlockState()
+                        : Blocks.STONE.defaultBlockState();
+            };
+            states[y - MIN_Y] = state;
+            if (!state.isAir()) top = y;
+        }
+
+        column = new StateColumn(states, top);
+        rules = new RtpColumnScanner.Rules(true, true, surfaceOnly, 0, false);
+        surfaceY = top + 1;
+    }
+
+    @Benchmark
+    public int scan() {
+        final int yMin = MIN_Y + 1;
+        final int yMax = MAX_BUILD - 2;
+        return RtpColumnScanner.scan(column, yMin, yMax, Math.min(surfaceY + 16, yMax), 64, rules);
+    }
+
+    @Benchmark
+    public int checkSurface() {
+        return RtpColumnScanner.checkSurface(column, surfaceY, MIN_Y + 1, MAX_BUILD - 2, rules);
+    }
+
+    /**
+     * Block states per Y, flags read through the safety table; sky visible above the highest non-air block.
+     * Section kinds are worked out once, like the palette checks of the in-game column.
+     */
+    static final class StateColumn implements RtpColumnScanner.Column {
+        private final BlockState[] states;
+        private final int skyFromY;
+        private final int[] sectionKinds;
+
+        StateColumn(BlockState[] states, int highestBlockY) {
+            this.states = states;
+            this.skyFromY = highestBlockY + 1;
+
+            this.sectionKinds = new int[states.length >> 4];
+            for (int s = 0; s < sectionKinds.length; s++) {
+                boolean onlyAir = true;
+                boolean anyAirLike = false;
+                for (int i = s << 4; i < (s + 1) << 4; i++) {
+                    if (!states[i].isAir()) onlyAir = false;
+                    if (RtpBlockSafetyTable.maybeAirLike(states[i])) anyAirLike = true;
+                }
+                sectionKinds[s] = onlyAir ? SECTION_ONLY_AIR : anyAirLike ? SECTION_MIXED : SECTION_NO_AIR_LIKE;
+            }
+        }
+
+        @Override
+        public int flags(int y) {
+            final int i = y - MIN_Y;
+            return RtpBlockSafetyTable.flags((i < 0 || i >= states.length) ? Blocks.VOID_AIR.defaultBlockState() : states[i]);
+        }
+
+        @Override
+        public boolean isAirLike(int y, int flags) {
+            return (flags & RtpBlockSafetyTable.AIR_LIKE) != 0;
+        }
+
+        @Override
+        public boolean isSturdyTop(int y, int flags) {
+            return (flags & RtpBlockSafetyTable.STURDY_TOP) != 0;
+        }
+
+        @Override
+        public boolean canSeeSky(int y) {
+            return y >= skyFromY;
+        }
+
+        @Override
+        public int sectionKind(int sectionY) {
+            return sectionKinds[sectionY - (MIN_Y >> 4)];
+        }
+    }
+}
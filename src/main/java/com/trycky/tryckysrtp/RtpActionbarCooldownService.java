@@ -5,87 +5,189 @@ import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
 
 import java.time.Duration;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.UUID;
 
 /**
  * W03 — Actionbar cooldown (no spam).
  * W11 — Progressive cooldown display (optional bar).
+ * W23 — Only players with a running cooldown are tracked.
+ * W24 — Staggered refresh: each player has a fixed phase within the period (from its UUID).
  *
  * Strategy:
- * - Runs at most once per updatePeriodTicks (default 20).
+ * - Players are registered when their cooldown starts (or on login / resync), removed on expiry or logout.
+ * - Min-heap ordered by the tick of each player's next update: a tick only touches players that are due.
+ * - Each player is refreshed once per updatePeriodTicks (default 20), on the ticks matching its phase,
+ *   so packets are spread over the period instead of all going out in the same tick.
  * - Sends actionbar only if remainingSeconds changed (default).
  * - Stops naturally when cooldown reaches 0.
  */
 public final class RtpActionbarCooldownService {
     private RtpActionbarCooldownService() {}
 
-    private static int tickCounter = 0;
-    private static final Map<UUID, Long> lastShownSeconds = new HashMap<>();
+    private static final class Tracked {
+        final UUID id;
+        final long nextAllowedMillis;
+        long dueTick;
+        long lastShownSeconds = -1L;
+
+        Tracked(UUID id, long nextAllowedMillis, long dueTick) {
+            this.id = id;
+            this.nextAllowedMillis = nextAllowedMillis;
+            this.dueTick = dueTick;
+        }
+    }
+
+    private static final Map<UUID, Tracked> tracked = new HashMap<>();
+    /** Stale entries (replaced or removed) stay in the heap and are skipped when polled. */
+    private static final PriorityQueue<Tracked> due = new PriorityQueue<>(Comparator.comparingLong(t -> t.dueTick));
+
+    /** Player-independent messages by remaining time (see {@link #cooldownMessage}); empty = nothing to show. */
+    private static final Map<Long, Optional<Component>> sharedMessages = new HashMap<>();
+    private static final int MAX_SHARED_MESSAGES = 4096;
+    private static String[] bars = null;
+
+    private static long currentTick = 0L;
+    /** Set after clearAll: online players are re-registered from the cooldown data on the next tick. */
+    private static boolean resyncPending = true;
+
+    /**
+     * Starts displaying a cooldown for this player (called when the cooldown starts).
+     */
+    public static void track(UUID uuid, long nextAllowedMillis) {
+        if (uuid == null || !RtpSettings.get().actionbarEnabled()) return;
+        if (nextAllowedMillis <= System.currentTimeMillis()) return;
+
+        final Tracked t = new Tracked(uuid, nextAllowedMillis, firstDueTick(uuid));
+        tracked.put(uuid, t);
+        due.add(t);
+    }
+
+    /**
+     * Login: picks up a cooldown still running from an earlier session.
+     */
+    public static void onPlayerLoggedIn(ServerPlayer player) {
+        track(player.getUUID(), RtpCooldownData.get(player.serverLevel()).getNextAllowedEpochMillis(player.getUUID()));
+    }
+
+    /**
+     * First tick after the current one that falls on this player's phase.
+     */
+    private static long firstDueTick(UUID uuid) {
+        final int period = RtpSettings.get().actionbarPeriodTicks();
+        final int phase = Math.floorMod(uuid.hashCode(), period);
+
+        final long next = currentTick + 1;
+        return next + Math.floorMod(phase - next, period);
+    }
 
     public static void onServerTick(MinecraftServer server) {
-        if (!RtpConfig.ACTIONBAR_COOLDOWN_ENABLED.get()) return;
+        currentTick++;
+        final RtpSettings settings = RtpSettings.get();
+        if (!settings.actionbarEnabled()) return;
+
+        if (resyncPending) {
+            resyncPending = false;
+            for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+                if (player != null && !tracked.containsKey(player.getUUID())) onPlayerLoggedIn(player);
+            }
+        }
 
-        final int period = Math.max(1, RtpConfig.ACTIONBAR_COOLDOWN_UPDATE_PERIOD_TICKS.get());
-        tickCounter++;
-        if (tickCounter < period) return;
-        tickCounter = 0;
+        if (due.isEmpty() || due.peek().dueTick > currentTick) return;
 
+        final int period = settings.actionbarPeriodTicks();
         final long now = System.currentTimeMillis();
 
-        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
-            if (player == null) continue;
+        while (!due.isEmpty() && due.peek().dueTick <= currentTick) {
+            final Tracked t = due.poll();
+            if (tracked.get(t.id) != t) continue; // stale
 
-            final long nextAllowed = RtpCooldownData.get(player.serverLevel()).getNextAllowedEpochMillis(player.getUUID());
-            if (nextAllowed <= now) {
-                lastShownSeconds.remove(player.getUUID());
+            final ServerPlayer player = server.getPlayerList().getPlayer(t.id);
+            if (player == null || t.nextAllowedMillis <= now) {
+                tracked.remove(t.id);
                 continue;
             }
 
-            final long remainingMs = nextAllowed - now;
+            t.dueTick = currentTick + period;
+            due.add(t);
+
+            final long remainingMs = t.nextAllowedMillis - now;
             final long remainingSec = (long) Math.ceil(remainingMs / 1000.0);
 
-            if (RtpConfig.ACTIONBAR_COOLDOWN_ONLY_WHEN_CHANGED.get()) {
-                final Long last = lastShownSeconds.get(player.getUUID());
-                if (last != null && last == remainingSec) continue;
-            }
-            lastShownSeconds.put(player.getUUID(), remainingSec);
+            if (settings.actionbarOnlyWhenChanged() && t.lastShownSeconds == remainingSec) continue;
+            t.lastShownSeconds = remainingSec;
 
-            if (RtpMessages.isSilent()) continue;
+            if (settings.messagesSilent()) continue;
 
-            final String msg = buildCooldownMessage(player, Duration.ofMillis(remainingMs), remainingSec);
-            if (msg.isEmpty()) continue;
+            final Component msg = cooldownMessage(player, remainingMs, remainingSec);
+            if (msg == null) continue;
 
-            player.displayClientMessage(Component.literal(msg), true); // true => actionbar
+            player.displayClientMessage(msg, true); // true => actionbar
         }
     }
 
-    private static String buildCooldownMessage(ServerPlayer player, Duration remaining, long remainingSec) {
-        String base = RtpMessages.actionbarCooldown(player, remaining);
-        if (base.isEmpty()) return base;
+    /**
+     * W25: without %player% the text only depends on the remaining time, so one Component is shared
+     * by every player showing the same value. Returns null if the message is empty.
+     */
+    private static Component cooldownMessage(ServerPlayer player, long remainingMs, long remainingSec) {
+        if (RtpMessages.actionbarDependsOnPlayer()) {
+            return toComponent(buildCooldownMessage(player, Duration.ofMillis(remainingMs), remainingSec));
+        }
+
+        // %remaining% uses whole elapsed seconds, remainingSec is rounded up: both are part of the key
+        final long key = (remainingMs / 1000L) << 1 | ((remainingMs % 1000L != 0L) ? 1L : 0L);
+        if (sharedMessages.size() > MAX_SHARED_MESSAGES) sharedMessages.clear();
+        return sharedMessages.computeIfAbsent(key, k -> Optional.ofNullable(toComponent(buildCooldownMessage(null, Duration.ofMillis(remainingMs), remainingSec)))).orElse(null);
+    }
 
-        if (!RtpConfig.ACTIONBAR_COOLDOWN_PROGRESSIVE.get()) {
-            return base;
+    private static Component toComponent(String msg) {
+        return msg.isEmpty() ? null : Component.literal(msg);
+    }
+
+    private static String buildCooldownMessage(ServerPlayer player, Duration remaining, long remainingSec) {
+        final RtpSettings settings = RtpSettings.get();
+        if (!settings.actionbarProgressive()) {
+            return RtpMessages.actionbarCooldown(player, remaining, null);
         }
 
         // Progressive bar (cheap, purely text)
-        final int total = Math.max(1, RtpConfig.COOLDOWN_SECONDS.get());
+        final int total = Math.max(1, settings.cooldownSeconds());
         final double ratio = 1.0 - Math.min(1.0, Math.max(0.0, remainingSec / (double) total));
-        final int width = Math.max(5, Math.min(30, RtpConfig.ACTIONBAR_COOLDOWN_BAR_WIDTH.get()));
+        final int width = settings.actionbarBarWidth();
 
         final int filled = (int) Math.round(ratio * width);
-        final String bar = "[" + "#".repeat(Math.max(0, filled)) + "-".repeat(Math.max(0, width - filled)) + "]";
+        return RtpMessages.actionbarCooldown(player, remaining, bar(width, filled));
+    }
 
-        return base.replace("%bar%", bar);
+    /**
+     * Bars for every fill level of the current width, built once.
+     */
+    private static String bar(int width, int filled) {
+        String[] b = bars;
+        if (b == null || b.length != width + 1) {
+            b = new String[width + 1];
+            for (int f = 0; f <= width; f++) {
+                b[f] = "[" + "#".repeat(f) + "-".repeat(width - f) + "]";
+            }
+            bars = b;
+        }
+        return b[Math.max(0, Math.min(width, filled))];
     }
 
     public static void clearPlayer(UUID uuid) {
-        if (uuid != null) lastShownSeconds.remove(uuid);
+        if (uuid != null) tracked.remove(uuid);
     }
 
     public static void clearAll() {
-        lastShownSeconds.clear();
-        tickCounter = 0;
+        tracked.clear();
+        due.clear();
+        sharedMessages.clear();
+        bars = null;
+        resyncPending = true;
     }
 }
@@ -1,26 +1,53 @@
 package com.trycky.tryckysrtp;
 
 import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.trycky.tryckysrtp.rtp.RtpBatch;
+import com.trycky.tryckysrtp.rtp.RtpDestinationPool;
+import com.trycky.tryckysrtp.rtp.RtpMetrics;
+import com.trycky.tryckysrtp.rtp.RtpPregen;
+import com.trycky.tryckysrtp.rtp.RtpRejections;
 import com.trycky.tryckysrtp.rtp.RtpSafeTeleport;
+import com.trycky.tryckysrtp.rtp.RtpSearchJob;
+import com.trycky.tryckysrtp.rtp.RtpSearchScheduler;
+import com.trycky.tryckysrtp.rtp.RtpSimulation;
 import net.minecraft.ChatFormatting;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
+import net.minecraft.commands.arguments.DimensionArgument;
+import net.minecraft.commands.arguments.EntityArgument;
+import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 /**
  * W04 — /rtp status
  * W05 — /rtp reload
  * W12 — /rtp help
+ * W14 — Non-blocking search: /rtp starts a multi-tick job, teleport happens when it finishes.
+ * W16 — Fair queue: players are told their position when others are searching.
+ * W28 — /rtp metrics [reset] (same permission as reload).
+ * W30 — /rtp metrics rejections: why attempts fail, per dimension.
+ * W31 — /rtp simulate <count> [dimension]: dry-run load test (same permission as reload).
+ * W32 — /rtp batch <targets> [scatter|cluster [minSeparation]]: one shared search for a group (admin).
+ * W34 — /rtp pregen <dimension> [pause|status|cancel]: background pregeneration of the RTP ring (admin).
  * Refactor: clean subcommands, single execution flow.
  */
 public final class RtpCommand {
     private RtpCommand() {}
 
+    private static final int BATCH_SCATTER_SEPARATION = 64;
+    private static final int BATCH_CLUSTER_SEPARATION = 3;
+
     public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
         dispatcher.register(
                 Commands.literal("rtp")
@@ -31,6 +58,45 @@ public final class RtpCommand {
                         .then(Commands.literal("reload")
                                 .requires(RtpPermissions::canReload)
                                 .executes(ctx -> reload(ctx.getSource())))
+                        .then(Commands.literal("metrics")
+                                .requires(RtpPermissions::canReload)
+                                .executes(ctx -> metrics(ctx.getSource()))
+                                .then(Commands.literal("rejections").executes(ctx -> rejections(ctx.getSource())))
+                                .then(Commands.literal("reset").executes(ctx -> resetMetrics(ctx.getSource()))))
+                        .then(Commands.literal("simulate")
+                                .requires(RtpPermissions::canReload)
+                                .then(Commands.argument("count", IntegerArgumentType.integer(1, RtpSimulation.MAX_COUNT))
+                                        .executes(ctx -> simulate(ctx.getSource(), IntegerArgumentType.getInteger(ctx, "count"), ctx.getSource().getLevel()))
+                                        .then(Commands.argument("dimension", DimensionArgument.dimension())
+                                                .executes(ctx -> simulate(ctx.getSource(), IntegerArgumentType.getInteger(ctx, "count"),
+                                                        DimensionArgument.getDimension(ctx, "dimension"))))))
+                        .then(Commands.literal("batch")
+                                .requires(RtpPermissions::canReload)
+                                .then(Commands.argument("targets", EntityArgument.players())
+                                        .executes(ctx -> batch(ctx.getSource(), EntityArgument.getPlayers(ctx, "targets"),
+                                                RtpBatch.Mode.SCATTER, BATCH_SCATTER_SEPARATION))
+                                        .then(Commands.literal("scatter")
+                                                .executes(ctx -> batch(ctx.getSource(), EntityArgument.getPlayers(ctx, "targets"),
+                                                        RtpBatch.Mode.SCATTER, BATCH_SCATTER_SEPARATION))
+                                                .then(Commands.argument("minSeparation", IntegerArgumentType.integer(1, 1024))
+                                                        .executes(ctx -> batch(ctx.getSource(), EntityArgument.getPlayers(ctx, "targets"),
+                                                                RtpBatch.Mode.SCATTER, IntegerArgumentType.getInteger(ctx, "minSeparation")))))
+                                        .then(Commands.literal("cluster")
+                                                .executes(ctx -> batch(ctx.getSource(), EntityArgument.getPlayers(ctx, "targets"),
+                                                        RtpBatch.Mode.CLUSTER, BATCH_CLUSTER_SEPARATION))
+                                                .then(Commands.argument("minSeparation", IntegerArgumentType.integer(1, 64))
+                                                        .executes(ctx -> batch(ctx.getSource(), EntityArgument.getPlayers(ctx, "targets"),
+                                                                RtpBatch.Mode.CLUSTER, IntegerArgumentType.getInteger(ctx, "minSeparation")))))))
+                        .then(Commands.literal("pregen")
+                                .requires(RtpPermissions::canReload)
+                                .then(Commands.argument("dimension", DimensionArgument.dimension())
+                                        .executes(ctx -> pregenStart(ctx.getSource(), DimensionArgument.getDimension(ctx, "dimension")))
+                                        .then(Commands.literal("pause")
+                                                .executes(ctx -> pregenPause(ctx.getSource(), DimensionArgument.getDimension(ctx, "dimension"))))
+                                        .then(Commands.literal("status")
+                                                .executes(ctx -> pregenStatus(ctx.getSource(), DimensionArgument.getDimension(ctx, "dimension"))))
+                                        .then(Commands.literal("cancel")
+                                                .executes(ctx -> pregenCancel(ctx.getSource(), DimensionArgument.getDimension(ctx, "dimension"))))))
         );
     }
 
@@ -46,6 +112,18 @@ public final class RtpCommand {
         src.sendSuccess(() -> Component.literal("/rtp reload")
                 .append(Component.literal(" — Reload config + clear caches (admin)").withStyle(ChatFormatting.GRAY)), false);
 
+        src.sendSuccess(() -> Component.literal("/rtp metrics [rejections|reset]")
+                .append(Component.literal(" — Search latency, attempts and chunk loads (admin)").withStyle(ChatFormatting.GRAY)), false);
+
+        src.sendSuccess(() -> Component.literal("/rtp batch <targets> [scatter|cluster] [minSeparation]")
+                .append(Component.literal(" — Teleport a group with one shared search (admin)").withStyle(ChatFormatting.GRAY)), false);
+
+        src.sendSuccess(() -> Component.literal("/rtp simulate <count> [dimension]")
+                .append(Component.literal(" — Dry-run searches, no teleport (admin)").withStyle(ChatFormatting.GRAY)), false);
+
+        src.sendSuccess(() -> Component.literal("/rtp pregen <dimension> [pause|status|cancel]")
+                .append(Component.literal(" — Pregenerate the RTP area in the background (admin)").withStyle(ChatFormatting.GRAY)), false);
+
         src.sendSuccess(() -> Component.literal("Permissions:").withStyle(ChatFormatting.YELLOW), false);
         src.sendSuccess(() -> Component.literal("- " + RtpPermissions.BYPASS_COOLDOWN + " (fallback OP level " + RtpConfig.PERM_BYPASS_COOLDOWN_LEVEL.get() + ")").withStyle(ChatFormatting.GRAY), false);
         src.sendSuccess(() -> Component.literal("- " + RtpPermissions.BYPASS_UNSAFE + " (fallback OP level " + RtpConfig.PERM_BYPASS_UNSAFE_LEVEL.get() + ")").withStyle(ChatFormatting.GRAY), false);
@@ -116,6 +194,154 @@ public final class RtpCommand {
         return 1;
     }
 
+    private static int metrics(CommandSourceStack src) {
+        src.sendSuccess(() -> Component.literal("RTP Metrics").withStyle(ChatFormatting.GOLD), false);
+        for (String line : RtpMetrics.summary()) {
+            src.sendSuccess(() -> Component.literal(line).withStyle(ChatFormatting.GRAY), false);
+        }
+        return 1;
+    }
+
+    private static int rejections(CommandSourceStack src) {
+        src.sendSuccess(() -> Component.literal("RTP Rejections (failed attempts by reason)").withStyle(ChatFormatting.GOLD), false);
+        for (String line : RtpRejections.summary()) {
+            src.sendSuccess(() -> Component.literal(line).withStyle(ChatFormatting.GRAY), false);
+        }
+        return 1;
+    }
+
+    private static int resetMetrics(CommandSourceStack src) {
+        RtpMetrics.reset();
+        RtpRejections.reset();
+        src.sendSuccess(() -> Component.literal("Tryckys RTP: metrics reset.").withStyle(ChatFormatting.GREEN), false);
+        return 1;
+    }
+
+    private static int simulate(CommandSourceStack src, int count, ServerLevel level) {
+        if (!RtpSafeTeleport.isRtpAllowedInDimension(level)) {
+            src.sendFailure(Component.literal("RTP is not allowed in " + level.dimension().location() + "."));
+            return 0;
+        }
+
+        final boolean started = RtpSimulation.start(src.getServer(), level, count, report -> {
+            src.sendSuccess(() -> Component.literal("RTP Simulation").withStyle(ChatFormatting.GOLD), false);
+            for (String line : report) {
+                src.sendSuccess(() -> Component.literal(line).withStyle(ChatFormatting.GRAY), false);
+            }
+        });
+        if (!started) {
+            src.sendFailure(Component.literal("A simulation is already running."));
+            return 0;
+        }
+
+        src.sendSuccess(() -> Component.literal("Tryckys RTP: simulating " + count + " searches in " + level.dimension().location() + "...").withStyle(ChatFormatting.YELLOW), false);
+        return 1;
+    }
+
+    private static int pregenStart(CommandSourceStack src, ServerLevel level) {
+        if (!RtpSafeTeleport.isRtpAllowedInDimension(level)) {
+            src.sendFailure(Component.literal("RTP is not allowed in " + level.dimension().location() + "."));
+            return 0;
+        }
+
+        final String dim = level.dimension().location().toString();
+        switch (RtpPregen.start(level)) {
+            case ALREADY_RUNNING -> {
+                src.sendFailure(Component.literal("Pregeneration is already running in " + dim + "."));
+                return 0;
+            }
+            case ALREADY_COMPLETE -> {
+                src.sendSuccess(() -> Component.literal("Tryckys RTP: the RTP area of " + dim + " is already pregenerated (use cancel to start over).").withStyle(ChatFormatting.YELLOW), false);
+                return 1;
+            }
+            case RESUMED -> src.sendSuccess(() -> Component.literal("Tryckys RTP: pregeneration resumed in " + dim + ".").withStyle(ChatFormatting.GREEN), true);
+            case STARTED -> src.sendSuccess(() -> Component.literal("Tryckys RTP: pregeneration started in " + dim + ".").withStyle(ChatFormatting.GREEN), true);
+        }
+        return 1;
+    }
+
+    private static int pregenPause(CommandSourceStack src, ServerLevel level) {
+        if (!RtpPregen.pause(level)) {
+            src.sendFailure(Component.literal("No pregeneration running in " + level.dimension().location() + "."));
+            return 0;
+        }
+        src.sendSuccess(() -> Component.literal("Tryckys RTP: pregeneration paused in " + level.dimension().location() + ".").withStyle(ChatFormatting.YELLOW), true);
+        return 1;
+    }
+
+    private static int pregenStatus(CommandSourceStack src, ServerLevel level) {
+        src.sendSuccess(() -> Component.literal("RTP Pregeneration").withStyle(ChatFormatting.GOLD), false);
+        for (String line : RtpPregen.status(level)) {
+            src.sendSuccess(() -> Component.literal(line).withStyle(ChatFormatting.GRAY), false);
+        }
+        return 1;
+    }
+
+    private static int pregenCancel(CommandSourceStack src, ServerLevel level) {
+        if (!RtpPregen.cancel(level)) {
+            src.sendFailure(Component.literal("No pregeneration to cancel in " + level.dimension().location() + "."));
+            return 0;
+        }
+        src.sendSuccess(() -> Component.literal("Tryckys RTP: pregeneration cancelled in " + level.dimension().location() + " (progress cleared).").withStyle(ChatFormatting.YELLOW), true);
+        return 1;
+    }
+
+    private static int batch(CommandSourceStack src, Collection<ServerPlayer> targets, RtpBatch.Mode mode, int minSeparation) {
+        final ServerLevel level = src.getLevel();
+        if (!RtpSafeTeleport.isRtpAllowedInDimension(level)) {
+            src.sendFailure(Component.literal("RTP is not allowed in " + level.dimension().location() + "."));
+            return 0;
+        }
+        if (targets.size() > RtpBatch.MAX_PLAYERS) {
+            src.sendFailure(Component.literal("Too many players for one batch (max " + RtpBatch.MAX_PLAYERS + ")."));
+            return 0;
+        }
+
+        // The batch searches the sender's dimension: players elsewhere are left where they are
+        final List<UUID> ids = new ArrayList<>(targets.size());
+        for (ServerPlayer p : targets) {
+            if (p.serverLevel() == level) ids.add(p.getUUID());
+        }
+        final int skipped = targets.size() - ids.size();
+        final String skippedNote = (skipped == 0) ? "" : ", " + skipped + " skipped: not in " + level.dimension().location();
+        if (ids.isEmpty()) {
+            src.sendFailure(Component.literal("None of the targets is in " + level.dimension().location() + "."));
+            return 0;
+        }
+
+        final MinecraftServer server = src.getServer();
+        final boolean started = RtpBatch.start(level, ids, mode, minSeparation, new RtpBatch.Listener() {
+            @Override
+            public void onPlayer(ServerLevel batchLevel, UUID playerId, BlockPos pos) {
+                final ServerPlayer player = server.getPlayerList().getPlayer(playerId);
+                if (player == null || player.hasDisconnected()) return;
+
+                if (pos == null) {
+                    if (!RtpMessages.isSilent()) {
+                        player.displayClientMessage(Component.literal(RtpSafeTeleport.NO_SAFE_SPOT_MESSAGE).withStyle(ChatFormatting.RED), false);
+                    }
+                    return;
+                }
+
+                RtpSafeTeleport.teleportPlayer(player, batchLevel, pos);
+                onArrived(player, pos);
+            }
+
+            @Override
+            public void onFinished(int placed, int missing, int chunkRequests, long elapsedMillis) {
+                src.sendSuccess(() -> Component.literal("Tryckys RTP batch: " + placed + " teleported, " + missing + " without a spot" + skippedNote + " ("
+                        + chunkRequests + " chunk requests, " + elapsedMillis + " ms).").withStyle(missing == 0 && skipped == 0 ? ChatFormatting.GREEN : ChatFormatting.YELLOW), false);
+            }
+        });
+        if (!started) {
+            src.sendFailure(Component.literal("A batch RTP is already running."));
+            return 0;
+        }
+
+        src.sendSuccess(() -> Component.literal("Tryckys RTP: searching spots for " + ids.size() + " players in " + level.dimension().location() + " (" + mode.name().toLowerCase(Locale.ROOT) + skippedNote + ")...").withStyle(ChatFormatting.YELLOW), false);
+        return 1;
+    }
+
     private static int executeRtp(CommandSourceStack src) {
         final ServerPlayer player;
         try {
@@ -153,16 +379,55 @@ public final class RtpCommand {
             return 0;
         }
 
+        if (RtpSearchScheduler.isSearching(id)) {
+            if (!RtpMessages.isSilent()) {
+                player.displayClientMessage(Component.literal("An RTP search is already in progress.").withStyle(ChatFormatting.RED), false);
+            }
+            return 0;
+        }
+
         if (!RtpMessages.isSilent()) {
             player.displayClientMessage(Component.literal("Searching for a safe spot...").withStyle(ChatFormatting.YELLOW), false);
         }
 
-        final RtpSafeTeleport.Result result = RtpSafeTeleport.findSafeDestination(level, player, bypassUnsafe);
+        // W14 — the search runs over several ticks; the player is resolved again when it finishes.
+        final MinecraftServer server = src.getServer();
+        final RtpSearchJob job = new RtpSearchJob(
+                level,
+                id,
+                player.blockPosition().getY(),
+                bypassUnsafe,
+                (searchLevel, result) -> finishRtp(server, id, searchLevel, result, bypassCooldown)
+        );
+        // W15 — a pooled destination only needs a cheap re-check; live search is the fallback.
+        job.startFromPooled(RtpDestinationPool.poll(level));
+        RtpSearchScheduler.submit(job);
+
+        // W16 — searches are served in order under a per-tick budget
+        final int position = RtpSearchScheduler.queuePosition(id);
+        if (position > 1 && !RtpMessages.isSilent()) {
+            player.displayClientMessage(Component.literal("Position in RTP queue: #" + position).withStyle(ChatFormatting.YELLOW), false);
+        }
+
+        return 1;
+    }
+
+    private static void finishRtp(MinecraftServer server, UUID id, ServerLevel level, RtpSafeTeleport.Result result, boolean bypassCooldown) {
+        final ServerPlayer player = server.getPlayerList().getPlayer(id);
+        if (player == null || player.hasDisconnected()) return;
+
+        if (player.serverLevel() != level) {
+            if (!RtpMessages.isSilent()) {
+                player.displayClientMessage(Component.literal("RTP cancelled: you changed dimension.").withStyle(ChatFormatting.RED), false);
+            }
+            return;
+        }
+
         if (!result.success) {
             if (!RtpMessages.isSilent()) {
                 player.displayClientMessage(Component.literal(result.errorMessage).withStyle(ChatFormatting.RED), false);
             }
-            return 0;
+            return;
         }
 
         try {
@@ -172,33 +437,38 @@ public final class RtpCommand {
             if (!RtpMessages.isSilent()) {
                 player.displayClientMessage(Component.literal("Teleport failed. Check server logs.").withStyle(ChatFormatting.RED), false);
             }
-            return 0;
+            return;
         }
 
         if (!bypassCooldown) {
-            RtpCooldowns.startCooldown(src.getServer(), id);
+            RtpCooldowns.startCooldown(server, id);
         }
 
+        onArrived(player, result.pos);
+    }
+
+    /**
+     * Success message, arrival feedback and log after a teleport (single /rtp and batch).
+     */
+    private static void onArrived(ServerPlayer player, BlockPos pos) {
         final String newDimId = player.serverLevel().dimension().location().toString();
 
         // W01 success message from config
         if (!RtpMessages.isSilent()) {
-            final String msg = RtpMessages.success(player, result.pos, newDimId);
+            final String msg = RtpMessages.success(player, pos, newDimId);
             if (!msg.isEmpty()) player.displayClientMessage(Component.literal(msg).withStyle(ChatFormatting.GREEN), false);
         }
 
         // W02/W03 arrival feedback
-        RtpFeedback.onArrival(player, result.pos);
+        RtpFeedback.onArrival(player, pos);
 
         // W08 logs
         RtpLogger.info(
                 TryckysRTP.LOGGER,
                 "RTP: {} -> ({}, {}, {}) in {}",
                 player.getGameProfile().getName(),
-                result.pos.getX(), result.pos.getY(), result.pos.getZ(),
+                pos.getX(), pos.getY(), pos.getZ(),
                 newDimId
         );
-
-        return 1;
     }
 }
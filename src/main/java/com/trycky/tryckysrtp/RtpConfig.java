@@ -15,12 +15,23 @@ public final class RtpConfig {
 
     public enum DimensionMode { ALLOWLIST, DENYLIST }
     public enum SafeHeightMode { MOTION_BLOCKING_NO_LEAVES, MOTION_BLOCKING, WORLD_SURFACE, OCEAN_FLOOR }
+    public enum SearchMode { COLUMN, CHUNK }
 
     // W08
     public static final ModConfigSpec.EnumValue<RtpLogger.Level> LOG_LEVEL = BUILDER
             .comment("Logging level for Tryckys RTP: OFF / INFO / DEBUG.")
             .defineEnum("logging.level", RtpLogger.Level.INFO);
 
+    // W28
+    public static final ModConfigSpec.IntValue METRICS_LOG_INTERVAL_MINUTES = BUILDER
+            .comment("Log a summary of /rtp metrics every N minutes (INFO level). 0 disables.")
+            .defineInRange("logging.metricsIntervalMinutes", 0, 0, 1440);
+
+    // W30
+    public static final ModConfigSpec.IntValue REJECTION_TRACE_EVERY = BUILDER
+            .comment("Log every Nth rejected RTP attempt with its reason (DEBUG level). 0 disables.")
+            .defineInRange("logging.rejectionTraceEvery", 0, 0, 1_000_000);
+
     // Core
     public static final ModConfigSpec.IntValue COOLDOWN_SECONDS = BUILDER
             .comment("Cooldown in seconds between two /rtp uses for the same player.")
@@ -42,6 +53,38 @@ public final class RtpConfig {
             .comment("Minimum distance from world spawn (blocks). 0 disables this check.")
             .defineInRange("minDistanceFromSpawn", 200, 0, 2_000_000);
 
+    public static final ModConfigSpec.EnumValue<SearchMode> SEARCH_MODE = BUILDER
+            .comment("COLUMN: test one random X/Z per loaded chunk. CHUNK: rank all columns of the loaded chunk and pick a random safe one among the best (far fewer chunk loads).")
+            .defineEnum("search.mode", SearchMode.CHUNK);
+
+    public static final ModConfigSpec.IntValue SEARCH_COLUMNS_PER_CHUNK = BUILDER
+            .comment("CHUNK mode: how many of the best-ranked columns are fully validated per loaded chunk.")
+            .defineInRange("search.columnsPerChunk", 16, 1, 256);
+
+    public static final ModConfigSpec.ConfigValue<List<? extends String>> BIOME_DENYLIST = BUILDER
+            .comment("Candidates in these biomes are rejected before their chunk is loaded/generated. Biome ids or #tags. Example: #minecraft:is_ocean")
+            .defineListAllowEmpty("search.biomeDenylist", List.of("#minecraft:is_ocean", "#minecraft:is_river"), o -> o instanceof String);
+
+    public static final ModConfigSpec.BooleanValue PREFER_GENERATED_TERRAIN = BUILDER
+            .comment("Bias sampling towards chunks that already exist on disk (indexed from region file headers). Loading a saved chunk is much cheaper than generating one.")
+            .define("search.preferGeneratedTerrain", false);
+
+    public static final ModConfigSpec.IntValue GENERATED_TERRAIN_SAMPLES = BUILDER
+            .comment("With preferGeneratedTerrain: X/Z draws per attempt before accepting a not-yet-generated chunk.")
+            .defineInRange("search.generatedTerrainSamples", 8, 1, 64);
+
+    public static final ModConfigSpec.IntValue UNSAFE_CHUNK_CACHE_SIZE = BUILDER
+            .comment("Chunks remembered per dimension as having no safe spot (skipped without loading). Only search.mode=CHUNK records chunks. 0 disables.")
+            .defineInRange("search.unsafeChunkCacheSize", 16384, 0, 1_000_000);
+
+    public static final ModConfigSpec.IntValue UNSAFE_CHUNK_TTL_MINUTES = BUILDER
+            .comment("How long an unsafe chunk is remembered (minutes). 0 = until evicted.")
+            .defineInRange("search.unsafeChunkTtlMinutes", 1440, 0, 525_600);
+
+    public static final ModConfigSpec.BooleanValue UNSAFE_CHUNK_CACHE_PERSIST = BUILDER
+            .comment("If true, the unsafe chunk cache is saved with the world (survives restarts).")
+            .define("search.unsafeChunkCachePersist", true);
+
     // Dimensions
     public static final ModConfigSpec.EnumValue<DimensionMode> DIMENSION_MODE = BUILDER
             .comment("Dimension filtering mode: ALLOWLIST or DENYLIST.")
@@ -72,14 +115,27 @@ public final class RtpConfig {
             .comment("If true, the safe-spot search requires a solid block under the player.")
             .define("requireSolidGround", true);
 
+    public static final ModConfigSpec.ConfigValue<String> DANGEROUS_GROUND_TAG = BUILDER
+            .comment("Block tag of extra blocks never used as ground (adds to the built-in hazards: magma, cactus, fire, campfires..., which always apply). Empty disables the tag.")
+            .define("safety.dangerousGroundTag", "tryckysrtp:dangerous_ground");
+
     public static final ModConfigSpec.EnumValue<SafeHeightMode> SAFE_HEIGHT_MODE = BUILDER
             .comment("Heightmap used to find the top safe Y coordinate for a random (x,z).")
             .defineEnum("safeHeightMode", SafeHeightMode.MOTION_BLOCKING_NO_LEAVES);
 
+    public static final ModConfigSpec.BooleanValue SURFACE_FAST_PATH = BUILDER
+            .comment("With surfaceOnlyInSkylightDims: validate only the heightmap surface (3-block check) instead of scanning the column.")
+            .define("search.surfaceFastPath", true);
+
     public static final ModConfigSpec.BooleanValue KEEP_YAW_PITCH = BUILDER
             .comment("If true, keeps the player's yaw/pitch on teleport. Otherwise resets to 0.")
             .define("keepYawPitch", true);
 
+    // W33
+    public static final ModConfigSpec.IntValue ARRIVAL_PRELOAD_RADIUS = BUILDER
+            .comment("Chunks around the destination loaded before the teleport (and held briefly after it). 0 = destination chunk only.")
+            .defineInRange("arrival.preloadRadius", 2, 0, 8);
+
     public static final ModConfigSpec.BooleanValue SURFACE_ONLY_IN_SKYLIGHT_DIMS = BUILDER
             .comment("If true, in skylight dimensions the destination must see the sky (avoid caves in overworld).")
             .define("surfaceOnlyInSkylightDims", true);
@@ -88,6 +144,46 @@ public final class RtpConfig {
             .comment("Ceiling dims (e.g. Nether): reject destinations too open above. 0 disables.")
             .defineInRange("maxCeilingClearance", 32, 0, 512);
 
+    // W16 search scheduler
+    public static final ModConfigSpec.DoubleValue SCHEDULER_TICK_BUDGET_MILLIS = BUILDER
+            .comment("Max time (ms) spent on RTP search work per server tick, shared by all pending searches.")
+            .defineInRange("scheduler.tickBudgetMillis", 2.0, 0.1, 50.0);
+
+    public static final ModConfigSpec.IntValue SCHEDULER_MAX_CONCURRENT_CHUNK_LOADS = BUILDER
+            .comment("Max chunks requested by RTP searches at the same time (background pool refills use at most half).")
+            .defineInRange("scheduler.maxConcurrentChunkLoads", 8, 1, 256);
+
+    // W15 destination pool
+    public static final ModConfigSpec.IntValue POOL_TARGET_SIZE = BUILDER
+            .comment("Pre-validated safe destinations kept ready per allowed dimension (filled in the background, which loads and may generate chunks). 0 disables the pool.")
+            .defineInRange("pool.targetSize", 0, 0, 256);
+
+    public static final ModConfigSpec.IntValue POOL_REFILL_INTERVAL_TICKS = BUILDER
+            .comment("How often the pool checks whether a dimension needs refilling (ticks).")
+            .defineInRange("pool.refillIntervalTicks", 40, 1, 1200);
+
+    public static final ModConfigSpec.IntValue POOL_MAX_CONCURRENT_REFILLS = BUILDER
+            .comment("Max background searches running at the same time per dimension to refill the pool.")
+            .defineInRange("pool.maxConcurrentRefills", 1, 1, 16);
+
+    // W32
+    public static final ModConfigSpec.IntValue BATCH_TELEPORTS_PER_TICK = BUILDER
+            .comment("/rtp batch: players teleported per tick once the spots are found (spreads the arrivals over ticks).")
+            .defineInRange("batch.teleportsPerTick", 5, 1, 100);
+
+    // W34
+    public static final ModConfigSpec.DoubleValue PREGEN_TICK_BUDGET_MILLIS = BUILDER
+            .comment("/rtp pregen: max time (ms) per server tick spent walking the ring and requesting chunks.")
+            .defineInRange("pregen.tickBudgetMillis", 1.0, 0.1, 50.0);
+
+    public static final ModConfigSpec.IntValue PREGEN_MAX_CONCURRENT_CHUNKS = BUILDER
+            .comment("/rtp pregen: max chunks being generated at the same time (per dimension).")
+            .defineInRange("pregen.maxConcurrentChunks", 16, 1, 256);
+
+    public static final ModConfigSpec.DoubleValue PREGEN_PAUSE_ABOVE_MSPT = BUILDER
+            .comment("/rtp pregen: no new chunk requests while the average tick time is above this (ms). 0 disables.")
+            .defineInRange("pregen.pauseAboveMspt", 40.0, 0.0, 1000.0);
+
     // W01 + W07 (messages)
     public static final ModConfigSpec.BooleanValue MESSAGES_SILENT = BUILDER
             .comment("If true, disables player chat/actionbar/title messages (useful for RP servers).")
@@ -203,5 +299,9 @@ public final class RtpConfig {
             .comment("Fallback OP level required for /rtp reload.")
             .defineInRange("permissions.reloadLevel", 3, 0, 4);
 
+    public static final ModConfigSpec.IntValue PERM_CACHE_TTL_SECONDS = BUILDER
+            .comment("How long a player's permission check result is reused (seconds). 0 disables the cache.")
+            .defineInRange("permissions.cacheTtlSeconds", 5, 0, 300);
+
     public static final ModConfigSpec SPEC = BUILDER.build();
 }
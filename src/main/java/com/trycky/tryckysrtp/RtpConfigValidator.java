@@ -39,6 +39,24 @@ public final class RtpConfigValidator {
         validateDimensionList("allowedDimensions", RtpConfig.ALLOWED_DIMENSIONS.get());
         validateDimensionList("blockedDimensions", RtpConfig.BLOCKED_DIMENSIONS.get());
 
+        // biome denylist (ids or #tags)
+        for (String s : RtpConfig.BIOME_DENYLIST.get()) {
+            if (s == null || s.isBlank()) continue;
+            final String id = s.trim().startsWith("#") ? s.trim().substring(1) : s.trim();
+            if (ResourceLocation.tryParse(id) == null) {
+                RtpLogger.warn(TryckysRTP.LOGGER, "Config warning: search.biomeDenylist contains invalid biome/tag id: '{}'", s);
+            }
+        }
+
+        // dangerous ground tag
+        final String tag = RtpConfig.DANGEROUS_GROUND_TAG.get();
+        if (tag != null && !tag.isBlank()) {
+            final String id = tag.trim().startsWith("#") ? tag.trim().substring(1) : tag.trim();
+            if (ResourceLocation.tryParse(id) == null) {
+                RtpLogger.warn(TryckysRTP.LOGGER, "Config warning: safety.dangerousGroundTag is not a valid tag id: '{}'", tag);
+            }
+        }
+
         // actionbar settings
         final int period = RtpConfig.ACTIONBAR_COOLDOWN_UPDATE_PERIOD_TICKS.get();
         if (period < 1) {
@@ -6,15 +6,15 @@ import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.saveddata.SavedData;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
 
 public final class RtpCooldownData extends SavedData {
 
     private static final String DATA_NAME = TryckysRTP.MODID + "_cooldowns";
+    private static final int FORMAT_ARRAYS = 2;
 
-    private final Map<String, Long> nextAllowedMillisByUuid = new HashMap<>();
+    /** W21: keyed by the UUID's two longs; expired entries are dropped on lookup and before saving. */
+    private final RtpCooldownStore nextAllowedMillisByUuid = new RtpCooldownStore();
 
     public RtpCooldownData() {}
 
@@ -35,35 +35,75 @@ public final class RtpCooldownData extends SavedData {
     }
 
     public long getNextAllowedEpochMillis(UUID uuid) {
-        return nextAllowedMillisByUuid.getOrDefault(uuid.toString(), 0L);
+        return nextAllowedMillisByUuid.get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), System.currentTimeMillis());
     }
 
     public void setNextAllowedEpochMillis(UUID uuid, long nextAllowedMillis) {
-        nextAllowedMillisByUuid.put(uuid.toString(), nextAllowedMillis);
+        nextAllowedMillisByUuid.put(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), nextAllowedMillis);
         setDirty();
     }
 
     public long getCooldownMillis() {
-        final long seconds = Math.max(0L, (long) RtpConfig.COOLDOWN_SECONDS.get());
-        return seconds * 1000L;
+        return RtpSettings.get().cooldownSeconds() * 1000L;
     }
 
+    /**
+     * W22: active cooldowns only, as three parallel long arrays (uuid msb, uuid lsb, next allowed millis).
+     * Size and save time scale with running cooldowns, not with every player ever seen.
+     */
     @Override
     public CompoundTag save(CompoundTag tag, HolderLookup.Provider provider) {
-        CompoundTag mapTag = new CompoundTag();
-        for (var e : nextAllowedMillisByUuid.entrySet()) {
-            mapTag.putLong(e.getKey(), e.getValue());
-        }
-        tag.put("nextAllowedMillisByUuid", mapTag);
+        nextAllowedMillisByUuid.purgeExpired(System.currentTimeMillis());
+
+        final int n = nextAllowedMillisByUuid.size();
+        final long[] msbs = new long[n];
+        final long[] lsbs = new long[n];
+        final long[] nexts = new long[n];
+        final int[] i = {0};
+        nextAllowedMillisByUuid.forEach((msb, lsb, next) -> {
+            msbs[i[0]] = msb;
+            lsbs[i[0]] = lsb;
+            nexts[i[0]] = next;
+            i[0]++;
+        });
+
+        tag.putInt("format", FORMAT_ARRAYS);
+        tag.putLongArray("uuidMost", msbs);
+        tag.putLongArray("uuidLeast", lsbs);
+        tag.putLongArray("nextAllowedMillis", nexts);
         return tag;
     }
 
     public static RtpCooldownData load(CompoundTag tag, HolderLookup.Provider provider) {
         RtpCooldownData data = new RtpCooldownData();
+        final long now = System.currentTimeMillis();
+
+        if (tag.getInt("format") == FORMAT_ARRAYS) {
+            final long[] msbs = tag.getLongArray("uuidMost");
+            final long[] lsbs = tag.getLongArray("uuidLeast");
+            final long[] nexts = tag.getLongArray("nextAllowedMillis");
+            final int n = Math.min(msbs.length, Math.min(lsbs.length, nexts.length));
+            for (int i = 0; i < n; i++) {
+                if (nexts[i] > now) data.nextAllowedMillisByUuid.put(msbs[i], lsbs[i], nexts[i]);
+            }
+            return data;
+        }
+
+        // Legacy layout: one long per UUID string key
         CompoundTag mapTag = tag.getCompound("nextAllowedMillisByUuid");
         for (String key : mapTag.getAllKeys()) {
-            data.nextAllowedMillisByUuid.put(key, mapTag.getLong(key));
+            final long next = mapTag.getLong(key);
+            if (next <= now) continue;
+
+            final UUID uuid;
+            try {
+                uuid = UUID.fromString(key);
+            } catch (IllegalArgumentException ex) {
+                continue;
+            }
+            data.nextAllowedMillisByUuid.put(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), next);
         }
+        data.setDirty(); // rewrite in the compact layout on next save
         return data;
     }
 }
@@ -0,0 +1,164 @@
+package com.trycky.tryckysrtp;
+
+/**
+ * W21 — Open-addressing map UUID (msb, lsb) -> next allowed epoch millis.
+ *
+ * - Parallel primitive arrays, linear probing: no boxing, no String per lookup.
+ * - A slot is free when its value is 0 (0 also means "no cooldown", so nothing is lost).
+ * - Expired entries are removed when looked up, and in bulk by {@link #purgeExpired}.
+ * - Removal shifts the following cluster back (no tombstones).
+ */
+final class RtpCooldownStore {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] msbs;
+    private long[] lsbs;
+    private long[] values;
+    private int size;
+
+    RtpCooldownStore() {
+        allocate(MIN_CAPACITY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Next allowed epoch millis, or 0 if none / already expired at nowMillis (the entry is dropped then).
+     */
+    long get(long msb, long lsb, long nowMillis) {
+        final int slot = find(msb, lsb);
+        if (slot < 0) return 0L;
+
+        final long value = values[slot];
+        if (value <= nowMillis) {
+            removeAt(slot);
+            return 0L;
+        }
+        return value;
+    }
+
+    void put(long msb, long lsb, long nextAllowedMillis) {
+        if (nextAllowedMillis == 0L) {
+            remove(msb, lsb);
+            return;
+        }
+
+        int slot = find(msb, lsb);
+        if (slot >= 0) {
+            values[slot] = nextAllowedMillis;
+            return;
+        }
+
+        if ((size + 1) * 4 > values.length * 3) allocate(values.length * 2);
+
+        slot = insertionSlot(msb, lsb);
+        msbs[slot] = msb;
+        lsbs[slot] = lsb;
+        values[slot] = nextAllowedMillis;
+        size++;
+    }
+
+    void remove(long msb, long lsb) {
+        final int slot = find(msb, lsb);
+        if (slot >= 0) removeAt(slot);
+    }
+
+    /**
+     * Drops every entry expired at nowMillis; shrinks the table if it became mostly empty.
+     */
+    void purgeExpired(long nowMillis) {
+        int i = 0;
+        while (i < values.length) {
+            // removeAt may shift a later entry into slot i: re-check the same slot
+            if (values[i] != 0L && values[i] <= nowMillis) {
+                removeAt(i);
+            } else {
+                i++;
+            }
+        }
+
+        if (values.length > MIN_CAPACITY && size * 8 < values.length) {
+            allocate(Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, size) * 2) * 2));
+        }
+    }
+
+    interface EntryConsumer {
+        void accept(long msb, long lsb, long nextAllowedMillis);
+    }
+
+    void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != 0L) consumer.accept(msbs[i], lsbs[i], values[i]);
+        }
+    }
+
+    private int find(long msb, long lsb) {
+        final int mask = values.length - 1;
+        int slot = hash(msb, lsb) & mask;
+        while (values[slot] != 0L) {
+            if (msbs[slot] == msb && lsbs[slot] == lsb) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int insertionSlot(long msb, long lsb) {
+        final int mask = values.length - 1;
+        int slot = hash(msb, lsb) & mask;
+        while (values[slot] != 0L) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private void removeAt(int slot) {
+        final int mask = values.length - 1;
+        int free = slot;
+        int next = (slot + 1) & mask;
+
+        while (values[next] != 0L) {
+            final int home = hash(msbs[next], lsbs[next]) & mask;
+            // Move next into the hole if its home slot is not within (free, next]
+            final boolean movable = (free <= next) ? (home <= free || home > next) : (home <= free && home > next);
+            if (movable) {
+                msbs[free] = msbs[next];
+                lsbs[free] = lsbs[next];
+                values[free] = values[next];
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        values[free] = 0L;
+        msbs[free] = 0L;
+        lsbs[free] = 0L;
+        size--;
+    }
+
+    private void allocate(int capacity) {
+        final long[] oldMsbs = msbs;
+        final long[] oldLsbs = lsbs;
+        final long[] oldValues = values;
+
+        msbs = new long[capacity];
+        lsbs = new long[capacity];
+        values = new long[capacity];
+        size = 0;
+
+        if (oldValues == null) return;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == 0L) continue;
+            final int slot = insertionSlot(oldMsbs[i], oldLsbs[i]);
+            msbs[slot] = oldMsbs[i];
+            lsbs[slot] = oldLsbs[i];
+            values[slot] = oldValues[i];
+            size++;
+        }
+    }
+
+    private static int hash(long msb, long lsb) {
+        final long h = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -29,6 +29,8 @@ public final class RtpCooldowns {
         ServerLevel level = server.overworld();
         RtpCooldownData data = RtpCooldownData.get(level);
         long now = System.currentTimeMillis();
-        data.setNextAllowedEpochMillis(playerId, now + data.getCooldownMillis());
+        final long nextAllowed = now + data.getCooldownMillis();
+        data.setNextAllowedEpochMillis(playerId, nextAllowed);
+        RtpActionbarCooldownService.track(playerId, nextAllowed);
     }
 }
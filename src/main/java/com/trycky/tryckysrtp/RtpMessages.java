@@ -12,56 +12,90 @@ import java.util.Objects;
  * W07 — Silent mode.
  * W09 — i18n-ready: config messages are optional, defaults can be translatable (command uses them).
  * W10 — Safe formatting: never crashes if placeholders missing.
+ * W25 — Compiled templates: parsed once, rendered in a single pass.
  */
 public final class RtpMessages {
     private RtpMessages() {}
 
     public static boolean isSilent() {
-        return RtpConfig.MESSAGES_SILENT.get();
+        return RtpSettings.get().messagesSilent();
     }
 
     public static String success(ServerPlayer player, BlockPos pos, String dimensionId) {
-        return formatTemplate(RtpConfig.MSG_SUCCESS.get(), player, pos, dimensionId, null);
+        return formatTemplate(template(TemplateId.SUCCESS, RtpConfig.MSG_SUCCESS.get()), player, pos, dimensionId, null, null);
     }
 
     public static String fail(ServerPlayer player, String dimensionId) {
-        return formatTemplate(RtpConfig.MSG_FAIL.get(), player, null, dimensionId, null);
+        return formatTemplate(template(TemplateId.FAIL, RtpConfig.MSG_FAIL.get()), player, null, dimensionId, null, null);
     }
 
-    public static String actionbarCooldown(ServerPlayer player, Duration remaining) {
-        return formatTemplate(RtpConfig.ACTIONBAR_COOLDOWN_MESSAGE.get(), player, null, null, remaining);
+    /**
+     * @param bar progress bar for %bar%, or null to leave %bar% as written
+     */
+    public static String actionbarCooldown(ServerPlayer player, Duration remaining, String bar) {
+        return formatTemplate(actionbarTemplate(), player, null, null, remaining, bar);
+    }
+
+    /**
+     * True if the actionbar text differs per player (uses %player%); otherwise it only depends on the remaining time.
+     */
+    public static boolean actionbarDependsOnPlayer() {
+        return actionbarTemplate().uses(RtpTemplate.Placeholder.PLAYER);
     }
 
     public static String title(ServerPlayer player, BlockPos pos, String dimensionId) {
-        return formatTemplate(RtpConfig.TITLE_TEXT.get(), player, pos, dimensionId, null);
+        return formatTemplate(template(TemplateId.TITLE, RtpConfig.TITLE_TEXT.get()), player, pos, dimensionId, null, null);
     }
 
     public static String subtitle(ServerPlayer player, BlockPos pos, String dimensionId) {
-        return formatTemplate(RtpConfig.SUBTITLE_TEXT.get(), player, pos, dimensionId, null);
+        return formatTemplate(template(TemplateId.SUBTITLE, RtpConfig.SUBTITLE_TEXT.get()), player, pos, dimensionId, null, null);
+    }
+
+    public static void clearCaches() {
+        for (int i = 0; i < compiled.length; i++) compiled[i] = null;
+    }
+
+    private enum TemplateId { SUCCESS, FAIL, ACTIONBAR, TITLE, SUBTITLE }
+
+    private record Compiled(String raw, RtpTemplate template) {}
+
+    /** W25: templates are parsed once per config value (re-parsed when the string changes on reload, compared by content). */
+    private static final Compiled[] compiled = new Compiled[TemplateId.values().length];
+
+    private static RtpTemplate template(TemplateId id, String raw) {
+        final Compiled c = compiled[id.ordinal()];
+        if (c != null && Objects.equals(c.raw(), raw)) return c.template();
+
+        final RtpTemplate t = RtpTemplate.compile(raw);
+        compiled[id.ordinal()] = new Compiled(raw, t);
+        return t;
     }
 
-    private static String formatTemplate(String template, ServerPlayer player, BlockPos pos, String dimensionId, Duration remaining) {
-        String out = Objects.toString(template, "");
-        if (out.isEmpty()) return out;
+    private static RtpTemplate actionbarTemplate() {
+        return template(TemplateId.ACTIONBAR, RtpConfig.ACTIONBAR_COOLDOWN_MESSAGE.get());
+    }
 
-        final String name = (player != null) ? player.getGameProfile().getName() : "";
-        final String dim = Objects.toString(dimensionId, "");
+    private static String formatTemplate(RtpTemplate template, ServerPlayer player, BlockPos pos, String dimensionId, Duration remaining, String bar) {
+        if (template.isEmpty()) return "";
 
-        out = out.replace("%player%", name);
-        out = out.replace("%dimension%", dim);
+        final String[] values = new String[RtpTemplate.PLACEHOLDER_COUNT];
+        values[RtpTemplate.Placeholder.PLAYER.ordinal()] = (player != null) ? player.getGameProfile().getName() : "";
+        values[RtpTemplate.Placeholder.DIMENSION.ordinal()] = Objects.toString(dimensionId, "");
 
         if (pos != null) {
-            out = out.replace("%x%", Integer.toString(pos.getX()));
-            out = out.replace("%y%", Integer.toString(pos.getY()));
-            out = out.replace("%z%", Integer.toString(pos.getZ()));
+            values[RtpTemplate.Placeholder.X.ordinal()] = Integer.toString(pos.getX());
+            values[RtpTemplate.Placeholder.Y.ordinal()] = Integer.toString(pos.getY());
+            values[RtpTemplate.Placeholder.Z.ordinal()] = Integer.toString(pos.getZ());
         }
 
         if (remaining != null) {
-            out = out.replace("%remaining%", formatDuration(remaining));
-            out = out.replace("%remaining_seconds%", Long.toString(Math.max(0, remaining.toSeconds())));
+            values[RtpTemplate.Placeholder.REMAINING.ordinal()] = formatDuration(remaining);
+            values[RtpTemplate.Placeholder.REMAINING_SECONDS.ordinal()] = Long.toString(Math.max(0, remaining.toSeconds()));
         }
 
-        return out;
+        values[RtpTemplate.Placeholder.BAR.ordinal()] = bar;
+
+        return template.render(values);
     }
 
     public static String formatDuration(Duration d) {
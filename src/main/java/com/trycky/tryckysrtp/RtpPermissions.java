@@ -2,18 +2,28 @@ package com.trycky.tryckysrtp;
 
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.server.level.ServerPlayer;
+import net.neoforged.neoforge.server.permission.PermissionAPI;
+import net.neoforged.neoforge.server.permission.events.PermissionGatherEvent;
+import net.neoforged.neoforge.server.permission.nodes.PermissionNode;
+import net.neoforged.neoforge.server.permission.nodes.PermissionTypes;
 
-import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * W06 — Advanced permissions.
  *
  * Supports:
- * - Permission API if present (reflection) with nodes:
+ * - NeoForge PermissionAPI with nodes (registered in PermissionGatherEvent.Nodes):
  *   - tryckysrtp.bypass.cooldown
  *   - tryckysrtp.bypass.unsafe
  *   - tryckysrtp.command.reload
+ *   Their default resolver is the configured OP level, so without a permission mod nothing changes.
  * Otherwise falls back to OP levels (configurable).
+ *
+ * W27 — Direct API calls (no reflection), results cached per player and node for permissions.cacheTtlSeconds.
+ * The cache is cleared on login/logout and on reload.
  */
 public final class RtpPermissions {
     private RtpPermissions() {}
@@ -22,12 +32,39 @@ public final class RtpPermissions {
     public static final String BYPASS_UNSAFE = "tryckysrtp.bypass.unsafe";
     public static final String COMMAND_RELOAD = "tryckysrtp.command.reload";
 
+    private static final PermissionNode<Boolean> BYPASS_COOLDOWN_NODE = new PermissionNode<>(TryckysRTP.MODID, "bypass.cooldown", PermissionTypes.BOOLEAN,
+            (player, uuid, ctx) -> player != null && player.hasPermissions(RtpConfig.PERM_BYPASS_COOLDOWN_LEVEL.get()));
+    private static final PermissionNode<Boolean> BYPASS_UNSAFE_NODE = new PermissionNode<>(TryckysRTP.MODID, "bypass.unsafe", PermissionTypes.BOOLEAN,
+            (player, uuid, ctx) -> player != null && player.hasPermissions(RtpConfig.PERM_BYPASS_UNSAFE_LEVEL.get()));
+    private static final PermissionNode<Boolean> COMMAND_RELOAD_NODE = new PermissionNode<>(TryckysRTP.MODID, "command.reload", PermissionTypes.BOOLEAN,
+            (player, uuid, ctx) -> player != null && player.hasPermissions(RtpConfig.PERM_RELOAD_LEVEL.get()));
+
+    /** Index into {@link Cached}. */
+    private static final int IDX_BYPASS_COOLDOWN = 0;
+    private static final int IDX_BYPASS_UNSAFE = 1;
+    private static final int IDX_COMMAND_RELOAD = 2;
+
+    private static final class Cached {
+        final long[] expiresAtMillis = new long[3];
+        final boolean[] values = new boolean[3];
+    }
+
+    private static final Map<UUID, Cached> cache = new HashMap<>();
+
+    /** Set once our nodes are registered; cleared if the API fails (then OP levels only). */
+    private static volatile boolean apiAvailable = false;
+
+    public static void onGatherNodes(PermissionGatherEvent.Nodes event) {
+        event.addNodes(BYPASS_COOLDOWN_NODE, BYPASS_UNSAFE_NODE, COMMAND_RELOAD_NODE);
+        apiAvailable = true;
+    }
+
     public static boolean canBypassCooldown(CommandSourceStack src, ServerPlayer player) {
-        return hasPermission(player, BYPASS_COOLDOWN, src.hasPermission(RtpConfig.PERM_BYPASS_COOLDOWN_LEVEL.get()));
+        return hasPermission(player, BYPASS_COOLDOWN_NODE, IDX_BYPASS_COOLDOWN, src.hasPermission(RtpConfig.PERM_BYPASS_COOLDOWN_LEVEL.get()));
     }
 
     public static boolean canBypassUnsafe(CommandSourceStack src, ServerPlayer player) {
-        return hasPermission(player, BYPASS_UNSAFE, src.hasPermission(RtpConfig.PERM_BYPASS_UNSAFE_LEVEL.get()));
+        return hasPermission(player, BYPASS_UNSAFE_NODE, IDX_BYPASS_UNSAFE, src.hasPermission(RtpConfig.PERM_BYPASS_UNSAFE_LEVEL.get()));
     }
 
     public static boolean canReload(CommandSourceStack src) {
@@ -35,22 +72,42 @@ public final class RtpPermissions {
         if (src.hasPermission(RtpConfig.PERM_RELOAD_LEVEL.get())) return true;
         final ServerPlayer p = src.getPlayer();
         if (p == null) return true;
-        return hasPermission(p, COMMAND_RELOAD, false);
+        return hasPermission(p, COMMAND_RELOAD_NODE, IDX_COMMAND_RELOAD, false);
     }
 
-    private static boolean hasPermission(ServerPlayer player, String node, boolean fallback) {
-        if (player == null) return fallback;
+    public static void invalidate(UUID playerId) {
+        if (playerId != null) cache.remove(playerId);
+    }
+
+    public static void clearCache() {
+        cache.clear();
+    }
+
+    private static boolean hasPermission(ServerPlayer player, PermissionNode<Boolean> node, int idx, boolean fallback) {
+        if (player == null || !apiAvailable) return fallback;
 
-        // Try NeoForge PermissionAPI via reflection (avoid hard dependency / compile risk)
+        final long ttlMillis = RtpConfig.PERM_CACHE_TTL_SECONDS.get() * 1000L;
+        final long now = System.currentTimeMillis();
+
+        Cached c = null;
+        if (ttlMillis > 0) {
+            c = cache.computeIfAbsent(player.getUUID(), k -> new Cached());
+            if (c.expiresAtMillis[idx] > now) return c.values[idx];
+        }
+
+        final boolean value;
         try {
-            final Class<?> api = Class.forName("net.neoforged.neoforge.server.permission.PermissionAPI");
-            final Method getPermission = api.getMethod("getPermission", ServerPlayer.class, String.class);
-            final Object result = getPermission.invoke(null, player, node);
-            if (result instanceof Boolean b) return b;
-        } catch (Throwable ignored) {
-            // no-op (fallback)
+            value = PermissionAPI.getPermission(player, node);
+        } catch (RuntimeException ex) {
+            apiAvailable = false;
+            RtpLogger.warn(TryckysRTP.LOGGER, "PermissionAPI failed for {}, falling back to OP levels: {}", node.getNodeName(), ex.toString());
+            return fallback;
         }
 
-        return fallback;
+        if (c != null) {
+            c.values[idx] = value;
+            c.expiresAtMillis[idx] = now + ttlMillis;
+        }
+        return value;
     }
 }
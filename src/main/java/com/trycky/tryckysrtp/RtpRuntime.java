@@ -1,5 +1,9 @@
 package com.trycky.tryckysrtp;
 
+import com.trycky.tryckysrtp.rtp.RtpBiomeFilter;
+import com.trycky.tryckysrtp.rtp.RtpBlockSafetyTable;
+import com.trycky.tryckysrtp.rtp.RtpDestinationPool;
+import com.trycky.tryckysrtp.rtp.RtpUnsafeChunkCache;
 import net.neoforged.fml.loading.FMLPaths;
 
 import java.lang.reflect.Field;
@@ -8,20 +12,27 @@ import java.lang.reflect.Method;
 /**
  * W05 — Clean reload:
  * - Reload config (best-effort)
- * - Clear caches (messages/feedback/actionbar state)
+ * - Clear caches (messages/feedback/actionbar state, destination pool, block safety table, unsafe chunks)
  */
 public final class RtpRuntime {
     private RtpRuntime() {}
 
     public static void reloadAll() {
         reloadConfigBestEffort();
+        RtpSettings.reload();
         clearCaches();
         RtpConfigValidator.validate();
     }
 
     public static void clearCaches() {
         RtpFeedback.clearCaches();
+        RtpMessages.clearCaches();
+        RtpPermissions.clearCache();
         RtpActionbarCooldownService.clearAll();
+        RtpDestinationPool.clearAll();
+        RtpBlockSafetyTable.invalidate();
+        RtpBiomeFilter.clearCache();
+        RtpUnsafeChunkCache.clearAll();
     }
 
     private static void reloadConfigBestEffort() {
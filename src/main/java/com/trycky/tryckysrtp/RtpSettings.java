@@ -0,0 +1,159 @@
+package com.trycky.tryckysrtp;
+
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.levelgen.Heightmap;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * W26 — Immutable snapshot of the config values read on hot paths (search, scheduler, actionbar).
+ *
+ * Built when the config is loaded/reloaded and published through a volatile field: readers get plain fields,
+ * already clamped/resolved (dimension ids as ResourceKeys, heightmap type, millis/nanos).
+ * Rarely used values (feedback, permissions, validation) still read {@link RtpConfig} directly.
+ */
+public record RtpSettings(
+        // Dimensions
+        boolean allowInNether,
+        boolean allowInEnd,
+        RtpConfig.DimensionMode dimensionMode,
+        Set<ResourceKey<Level>> allowedDimensions,
+        Set<ResourceKey<Level>> blockedDimensions,
+
+        // Search area
+        int radiusMin,
+        int radiusMax,
+        int minDistanceFromSpawn,
+        int attemptsMax,
+
+        // Search
+        RtpConfig.SearchMode searchMode,
+        int columnsPerChunk,
+        boolean preferGeneratedTerrain,
+        int generatedTerrainSamples,
+        int unsafeChunkCacheSize,
+        long unsafeChunkTtlMillis,
+        boolean unsafeChunkCachePersist,
+
+        // Safety
+        boolean requireSolidGround,
+        boolean avoidLiquids,
+        boolean surfaceOnlyInSkylightDims,
+        int maxCeilingClearance,
+        Heightmap.Types safeHeightmap,
+        boolean surfaceFastPath,
+        boolean keepYawPitch,
+        int arrivalPreloadRadius,
+
+        // Scheduler + pool
+        long tickBudgetNanos,
+        int maxConcurrentChunkLoads,
+        int poolTargetSize,
+        int poolRefillIntervalTicks,
+        int poolMaxConcurrentRefills,
+
+        // Messages + actionbar
+        boolean messagesSilent,
+        int cooldownSeconds,
+        boolean actionbarEnabled,
+        int actionbarPeriodTicks,
+        boolean actionbarOnlyWhenChanged,
+        boolean actionbarProgressive,
+        int actionbarBarWidth,
+
+        // Diagnostics
+        int rejectionTraceEvery
+) {
+
+    private static volatile RtpSettings current = null;
+
+    /**
+     * Current snapshot (built on first use if the config events did not run yet).
+     */
+    public static RtpSettings get() {
+        RtpSettings s = current;
+        if (s == null) s = reload();
+        return s;
+    }
+
+    /**
+     * Rebuilds the snapshot from {@link RtpConfig}. Called on config loading/reloading.
+     */
+    public static RtpSettings reload() {
+        int minR = Math.max(0, RtpConfig.RADIUS_MIN.get());
+        int maxR = Math.max(0, RtpConfig.RADIUS_MAX.get());
+        if (maxR < minR) { int t = maxR; maxR = minR; minR = t; }
+
+        final RtpSettings s = new RtpSettings(
+                RtpConfig.ALLOW_IN_NETHER.get(),
+                RtpConfig.ALLOW_IN_END.get(),
+                RtpConfig.DIMENSION_MODE.get(),
+                dimensionKeys(RtpConfig.ALLOWED_DIMENSIONS.get()),
+                dimensionKeys(RtpConfig.BLOCKED_DIMENSIONS.get()),
+
+                minR,
+                maxR,
+                RtpConfig.MIN_DISTANCE_FROM_SPAWN.get(),
+                RtpConfig.ATTEMPTS_MAX.get(),
+
+                RtpConfig.SEARCH_MODE.get(),
+                Math.max(1, RtpConfig.SEARCH_COLUMNS_PER_CHUNK.get()),
+                RtpConfig.PREFER_GENERATED_TERRAIN.get(),
+                RtpConfig.GENERATED_TERRAIN_SAMPLES.get(),
+                RtpConfig.UNSAFE_CHUNK_CACHE_SIZE.get(),
+                RtpConfig.UNSAFE_CHUNK_TTL_MINUTES.get() * 60_000L,
+                RtpConfig.UNSAFE_CHUNK_CACHE_PERSIST.get(),
+
+                RtpConfig.REQUIRE_SOLID_GROUND.get(),
+                RtpConfig.AVOID_LIQUIDS.get(),
+                RtpConfig.SURFACE_ONLY_IN_SKYLIGHT_DIMS.get(),
+                RtpConfig.MAX_CEILING_CLEARANCE.get(),
+                heightmapType(RtpConfig.SAFE_HEIGHT_MODE.get()),
+                RtpConfig.SURFACE_FAST_PATH.get(),
+                RtpConfig.KEEP_YAW_PITCH.get(),
+                RtpConfig.ARRIVAL_PRELOAD_RADIUS.get(),
+
+                Math.max(0L, (long) (RtpConfig.SCHEDULER_TICK_BUDGET_MILLIS.get() * 1_000_000.0)),
+                Math.max(1, RtpConfig.SCHEDULER_MAX_CONCURRENT_CHUNK_LOADS.get()),
+                RtpConfig.POOL_TARGET_SIZE.get(),
+                Math.max(1, RtpConfig.POOL_REFILL_INTERVAL_TICKS.get()),
+                Math.max(1, RtpConfig.POOL_MAX_CONCURRENT_REFILLS.get()),
+
+                RtpConfig.MESSAGES_SILENT.get(),
+                Math.max(0, RtpConfig.COOLDOWN_SECONDS.get()),
+                RtpConfig.ACTIONBAR_COOLDOWN_ENABLED.get(),
+                Math.max(1, RtpConfig.ACTIONBAR_COOLDOWN_UPDATE_PERIOD_TICKS.get()),
+                RtpConfig.ACTIONBAR_COOLDOWN_ONLY_WHEN_CHANGED.get(),
+                RtpConfig.ACTIONBAR_COOLDOWN_PROGRESSIVE.get(),
+                Math.max(5, Math.min(30, RtpConfig.ACTIONBAR_COOLDOWN_BAR_WIDTH.get())),
+
+                RtpConfig.REJECTION_TRACE_EVERY.get()
+        );
+        current = s;
+        return s;
+    }
+
+    private static Set<ResourceKey<Level>> dimensionKeys(List<? extends String> ids) {
+        final Set<ResourceKey<Level>> keys = new HashSet<>();
+        for (String s : ids) {
+            if (s == null || s.isBlank()) continue;
+            final ResourceLocation rl = ResourceLocation.tryParse(s.trim());
+            if (rl != null) keys.add(ResourceKey.create(Registries.DIMENSION, rl));
+        }
+        return Set.copyOf(keys);
+    }
+
+    private static Heightmap.Types heightmapType(RtpConfig.SafeHeightMode mode) {
+        return switch (mode) {
+            case MOTION_BLOCKING -> Heightmap.Types.MOTION_BLOCKING;
+            case WORLD_SURFACE -> Heightmap.Types.WORLD_SURFACE;
+            case OCEAN_FLOOR -> Heightmap.Types.OCEAN_FLOOR;
+            default -> Heightmap.Types.MOTION_BLOCKING_NO_LEAVES;
+        };
+    }
+}
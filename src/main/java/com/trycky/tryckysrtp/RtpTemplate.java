@@ -0,0 +1,125 @@
+package com.trycky.tryckysrtp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * W25 — Message template parsed once into literal segments and placeholder slots.
+ *
+ * - Rendering is a single pass: substituted values are never scanned again for placeholders.
+ * - A placeholder without a value (null), and any unknown %token%, is kept as written.
+ */
+final class RtpTemplate {
+
+    enum Placeholder {
+        PLAYER("player"),
+        DIMENSION("dimension"),
+        X("x"),
+        Y("y"),
+        Z("z"),
+        REMAINING("remaining"),
+        REMAINING_SECONDS("remaining_seconds"),
+        BAR("bar");
+
+        final String token;
+        final String literal;
+
+        Placeholder(String token) {
+            this.token = token;
+            this.literal = "%" + token + "%";
+        }
+
+        static Placeholder byToken(String token) {
+            for (Placeholder p : VALUES) {
+                if (p.token.equals(token)) return p;
+            }
+            return null;
+        }
+    }
+
+    private static final Placeholder[] VALUES = Placeholder.values();
+    static final int PLACEHOLDER_COUNT = VALUES.length;
+
+    static final RtpTemplate EMPTY = new RtpTemplate(new String[] {""}, new Placeholder[0]);
+
+    /** literals.length == slots.length + 1: literal, slot, literal, slot, ..., literal */
+    private final String[] literals;
+    private final Placeholder[] slots;
+    private final int literalLength;
+
+    private RtpTemplate(String[] literals, Placeholder[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+
+        int len = 0;
+        for (String s : literals) len += s.length();
+        this.literalLength = len;
+    }
+
+    static RtpTemplate compile(String raw) {
+        if (raw == null || raw.isEmpty()) return EMPTY;
+
+        final List<String> literals = new ArrayList<>();
+        final List<Placeholder> slots = new ArrayList<>();
+
+        final StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < raw.length()) {
+            final int open = raw.indexOf('%', i);
+            if (open < 0) {
+                literal.append(raw, i, raw.length());
+                break;
+            }
+
+            final int close = raw.indexOf('%', open + 1);
+            if (close < 0) {
+                literal.append(raw, i, raw.length());
+                break;
+            }
+
+            final Placeholder p = Placeholder.byToken(raw.substring(open + 1, close));
+            if (p == null) {
+                // Not a placeholder: keep the first '%', the closing one may open the next token
+                literal.append(raw, i, close);
+                i = close;
+                continue;
+            }
+
+            literal.append(raw, i, open);
+            literals.add(literal.toString());
+            literal.setLength(0);
+            slots.add(p);
+            i = close + 1;
+        }
+        literals.add(literal.toString());
+
+        return new RtpTemplate(literals.toArray(new String[0]), slots.toArray(new Placeholder[0]));
+    }
+
+    boolean isEmpty() {
+        return slots.length == 0 && literalLength == 0;
+    }
+
+    boolean uses(Placeholder p) {
+        for (Placeholder s : slots) {
+            if (s == p) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param values indexed by {@link Placeholder#ordinal()}; null keeps the placeholder as written
+     */
+    String render(String[] values) {
+        if (slots.length == 0) return literals[0];
+
+        final StringBuilder out = new StringBuilder(literalLength + slots.length * 8);
+        for (int k = 0; k < slots.length; k++) {
+            out.append(literals[k]);
+            final String v = values[slots[k].ordinal()];
+            out.append(v != null ? v : slots[k].literal);
+        }
+        out.append(literals[slots.length]);
+        return out.toString();
+    }
+}
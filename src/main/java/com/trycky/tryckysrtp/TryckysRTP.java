@@ -1,6 +1,19 @@
 package com.trycky.tryckysrtp;
 
 import com.mojang.logging.LogUtils;
+import com.trycky.tryckysrtp.rtp.RtpBatch;
+import com.trycky.tryckysrtp.rtp.RtpBlockSafetyTable;
+import com.trycky.tryckysrtp.rtp.RtpDestinationPool;
+import com.trycky.tryckysrtp.rtp.RtpGeneratedChunkIndex;
+import com.trycky.tryckysrtp.rtp.RtpJfrEvents;
+import com.trycky.tryckysrtp.rtp.RtpMetrics;
+import com.trycky.tryckysrtp.rtp.RtpPregen;
+import com.trycky.tryckysrtp.rtp.RtpRejections;
+import com.trycky.tryckysrtp.rtp.RtpSearchScheduler;
+import com.trycky.tryckysrtp.rtp.RtpSimulation;
+import com.trycky.tryckysrtp.rtp.RtpUnsafeChunkCache;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
 import net.neoforged.bus.api.IEventBus;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.ModContainer;
@@ -9,7 +22,14 @@ import net.neoforged.fml.config.ModConfig;
 import net.neoforged.fml.event.config.ModConfigEvent;
 import net.neoforged.neoforge.common.NeoForge;
 import net.neoforged.neoforge.event.RegisterCommandsEvent;
+import net.neoforged.neoforge.event.TagsUpdatedEvent;
+import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import net.neoforged.neoforge.event.level.ChunkDataEvent;
+import net.neoforged.neoforge.event.level.ChunkEvent;
+import net.neoforged.neoforge.event.server.ServerStartingEvent;
+import net.neoforged.neoforge.event.server.ServerStoppingEvent;
 import net.neoforged.neoforge.event.tick.ServerTickEvent;
+import net.neoforged.neoforge.server.permission.events.PermissionGatherEvent;
 import org.slf4j.Logger;
 
 @Mod(TryckysRTP.MODID)
@@ -24,6 +44,7 @@ public final class TryckysRTP {
         modEventBus.addListener(this::onConfigReloading);
 
         NeoForge.EVENT_BUS.register(this);
+        RtpJfrEvents.register();
 
         // IMPORTANT: don't touch config values here
         LOGGER.info("{} constructed (config not loaded yet)", MODID);
@@ -33,6 +54,7 @@ public final class TryckysRTP {
         if (event.getConfig().getType() != ModConfig.Type.COMMON) return;
 
         RtpLogger.applyConfig();
+        RtpSettings.reload();
         RtpConfigValidator.validate();
 
         RtpLogger.info(LOGGER, "{} config loaded", MODID);
@@ -42,6 +64,7 @@ public final class TryckysRTP {
         if (event.getConfig().getType() != ModConfig.Type.COMMON) return;
 
         RtpLogger.applyConfig();
+        RtpSettings.reload();
         RtpRuntime.clearCaches();
         RtpConfigValidator.validate();
 
@@ -56,6 +79,75 @@ public final class TryckysRTP {
     @SubscribeEvent
     public void onServerTick(ServerTickEvent.Post event) {
         if (event.getServer() == null) return;
+        RtpDestinationPool.onServerTick(event.getServer());
+        RtpSearchScheduler.onServerTick(event.getServer());
         RtpActionbarCooldownService.onServerTick(event.getServer());
+        RtpMetrics.onServerTick(event.getServer());
+        RtpSimulation.onServerTick(event.getServer());
+        RtpBatch.onServerTick(event.getServer());
+        RtpPregen.onServerTick(event.getServer());
+    }
+
+    @SubscribeEvent
+    public void onGatherPermissionNodes(PermissionGatherEvent.Nodes event) {
+        RtpPermissions.onGatherNodes(event);
+    }
+
+    @SubscribeEvent
+    public void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            RtpActionbarCooldownService.onPlayerLoggedIn(player);
+        }
+        RtpPermissions.invalidate(event.getEntity().getUUID());
+    }
+
+    @SubscribeEvent
+    public void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        RtpSearchScheduler.cancel(event.getEntity().getUUID());
+        RtpActionbarCooldownService.clearPlayer(event.getEntity().getUUID());
+        RtpPermissions.invalidate(event.getEntity().getUUID());
+    }
+
+    @SubscribeEvent
+    public void onChunkSave(ChunkDataEvent.Save event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            RtpGeneratedChunkIndex.onChunkSaved(level, event.getChunk().getPos());
+        }
+    }
+
+    @SubscribeEvent
+    public void onChunkLoad(ChunkEvent.Load event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            RtpMetrics.onChunkLoad(level, event.getChunk().getPos(), event.isNewChunk());
+        }
+    }
+
+    @SubscribeEvent
+    public void onServerStarting(ServerStartingEvent event) {
+        RtpBlockSafetyTable.rebuild();
+        RtpPregen.resumeSaved(event.getServer());
+    }
+
+    @SubscribeEvent
+    public void onTagsUpdated(TagsUpdatedEvent event) {
+        // Leaves / dangerous-ground tags may have changed (/reload)
+        if (event.getUpdateCause() == TagsUpdatedEvent.UpdateCause.SERVER_DATA_LOAD) {
+            RtpBlockSafetyTable.invalidate();
+        }
+    }
+
+    @SubscribeEvent
+    public void onServerStopping(ServerStoppingEvent event) {
+        RtpSearchScheduler.clearAll();
+        RtpDestinationPool.clearAll();
+        RtpGeneratedChunkIndex.clearAll();
+        RtpUnsafeChunkCache.clearAll();
+        RtpActionbarCooldownService.clearAll();
+        RtpPermissions.clearCache();
+        RtpMetrics.reset();
+        RtpRejections.reset();
+        RtpSimulation.clearAll();
+        RtpBatch.clearAll();
+        RtpPregen.clearAll();
     }
 }
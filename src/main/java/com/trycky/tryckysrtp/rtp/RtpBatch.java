@@ -0,0 +1,253 @@
+package com.trycky.tryckysrtp.rtp;
+
+import com.trycky.tryckysrtp.RtpConfig;
+import com.trycky.tryckysrtp.RtpLogger;
+import com.trycky.tryckysrtp.RtpSettings;
+import com.trycky.tryckysrtp.TryckysRTP;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.ChunkPos;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * W32 — Batch RTP for groups / events: one search for the whole group instead of one per player.
+ *
+ * - A few background {@link RtpSearchJob}s share one {@link RtpSearchJob.Harvester}: every loaded chunk gives
+ *   all its safe spots, so N players need far fewer chunk loads and column scans than N separate /rtp.
+ * - SCATTER: spots anywhere in the RTP area, at least minSeparation blocks apart.
+ * - CLUSTER: the first safe spot is the centre; the jobs then walk the chunks around it (closest first)
+ *   and keep spots within a radius sized for the group, minSeparation apart. Once every chunk around the centre
+ *   is evaluated (not just handed out) and players are still missing, the batch falls back to scatter:
+ *   spots found outside the cluster so far, then any new spot.
+ * - Teleports are spread over ticks (batch.teleportsPerTick). Players are handed to the {@link Listener},
+ *   which does the teleport itself (same path as /rtp).
+ * - W33: arrival areas are preloaded a few ticks ahead of the teleports (not all at once: a big batch
+ *   would otherwise hold hundreds of areas loaded).
+ *
+ * One batch at a time; cleared on server stop.
+ */
+public final class RtpBatch {
+    private RtpBatch() {}
+
+    public enum Mode { SCATTER, CLUSTER }
+
+    public static final int MAX_PLAYERS = 500;
+
+    /** Arrival areas are requested this many ticks' worth of teleports ahead. */
+    private static final int PRELOAD_AHEAD_TICKS = 4;
+
+    public interface Listener {
+        /** Once per player, spread over ticks. pos is null if the batch ran out of spots. */
+        void onPlayer(ServerLevel level, UUID playerId, BlockPos pos);
+
+        void onFinished(int placed, int missing, int chunkRequests, long elapsedMillis);
+    }
+
+    private static Batch running;
+
+    /**
+     * Starts a batch for the given players. Returns false if one is already running.
+     */
+    public static boolean start(ServerLevel level, List<UUID> players, Mode mode, int minSeparation, Listener listener) {
+        if (running != null || players.isEmpty()) return false;
+
+        final Batch batch = new Batch(level, players, mode, Math.max(1, minSeparation), listener);
+        running = batch;
+        batch.submitJobs();
+        return true;
+    }
+
+    public static boolean isRunning() {
+        return running != null;
+    }
+
+    public static void onServerTick(MinecraftServer server) {
+        final Batch batch = running;
+        if (batch == null || batch.jobsRunning > 0) return;
+        batch.teleportSome();
+    }
+
+    public static void clearAll() {
+        running = null;
+    }
+
+    private static final class Batch implements RtpSearchJob.Harvester {
+        final ServerLevel level;
+        final List<UUID> players;
+        final Mode mode;
+        final int minSeparation;
+        final Listener listener;
+        final long startMillis = System.currentTimeMillis();
+
+        final List<BlockPos> spots = new ArrayList<>();
+        final int clusterRadius;
+
+        BlockPos centre;
+        /** CLUSTER: chunks around the centre, closest first. */
+        ArrayDeque<ChunkPos> clusterChunks;
+        /** CLUSTER: chunks handed to a job and not evaluated yet. */
+        int clusterOutstanding = 0;
+        /** CLUSTER: every chunk around the centre is evaluated; spots are now taken anywhere (scatter). */
+        boolean clusterExhausted = false;
+        /** CLUSTER: spots outside the cluster radius, kept for the scatter fallback. */
+        final List<BlockPos> outsideSpots = new ArrayList<>();
+
+        int jobsRunning = 0;
+        int chunkRequests = 0;
+        int nextPlayer = 0;
+        int preloadedUpTo = 0;
+        int headWaitTicks = 0;
+
+        Batch(ServerLevel level, List<UUID> players, Mode mode, int minSeparation, Listener listener) {
+            this.level = level;
+            this.players = players;
+            this.mode = mode;
+            this.minSeparation = minSeparation;
+            this.listener = listener;
+            // Room for N players minSeparation apart, with margin for unsafe ground
+            this.clusterRadius = Math.min(256, Math.max(8, (int) Math.ceil(minSeparation * Math.sqrt(players.size()) * 1.2)));
+        }
+
+        void submitJobs() {
+            final RtpSettings settings = RtpSettings.get();
+            final int jobs = Math.min(players.size(), Math.max(1, settings.maxConcurrentChunkLoads() / 2));
+            final int perJobPlayers = (players.size() + jobs - 1) / jobs;
+            final int attempts = (int) Math.min(10_000L, (long) settings.attemptsMax() * perJobPlayers);
+
+            for (int i = 0; i < jobs; i++) {
+                final RtpSearchJob[] job = new RtpSearchJob[1];
+                job[0] = new RtpSearchJob(level, null, level.getSeaLevel(), false, (searchLevel, result) -> onJobFinished(job[0]))
+                        .harvestInto(this, attempts);
+                if (RtpSearchScheduler.submit(job[0])) jobsRunning++;
+            }
+        }
+
+        void onJobFinished(RtpSearchJob job) {
+            if (running != this) return;
+            jobsRunning--;
+            chunkRequests += job.chunkRequests();
+            if (jobsRunning == 0) {
+                RtpLogger.debug(TryckysRTP.LOGGER, "RTP batch {}: {} spots for {} players ({} chunk requests)",
+                        mode, spots.size(), players.size(), chunkRequests);
+            }
+        }
+
+        void teleportSome() {
+            final int perTick = RtpConfig.BATCH_TELEPORTS_PER_TICK.get();
+
+            final int preloadEnd = Math.min(spots.size(), nextPlayer + perTick * PRELOAD_AHEAD_TICKS);
+            for (; preloadedUpTo < preloadEnd; preloadedUpTo++) {
+                RtpChunkTickets.holdArrival(level, spots.get(preloadedUpTo));
+            }
+
+            for (int i = 0; i < perTick && nextPlayer < players.size(); i++, nextPlayer++) {
+                final BlockPos pos = (nextPlayer < spots.size()) ? spots.get(nextPlayer) : null;
+                if (pos != null && !RtpChunkTickets.isArrivalLoaded(level, pos)
+                        && ++headWaitTicks <= RtpChunkTickets.ARRIVAL_PRELOAD_MAX_TICKS) {
+                    return; // wait for this player's arrival area
+                }
+                headWaitTicks = 0;
+
+                try {
+                    listener.onPlayer(level, players.get(nextPlayer), pos);
+                } catch (Exception ex) {
+                    RtpLogger.error(TryckysRTP.LOGGER, "RTP batch teleport failed for {}", players.get(nextPlayer), ex);
+                }
+            }
+
+            if (nextPlayer < players.size()) return;
+            running = null;
+            final int placed = Math.min(spots.size(), players.size());
+            listener.onFinished(placed, players.size() - placed, chunkRequests, System.currentTimeMillis() - startMillis);
+        }
+
+        @Override
+        public int columnsPerChunk() {
+            final int configured = RtpSettings.get().columnsPerChunk();
+            // Spots of one chunk are less than minSeparation apart: only validate more columns if several can be used
+            if (mode == Mode.SCATTER && minSeparation >= 16) return configured;
+            return Math.min(256, Math.max(configured, 2 * (players.size() - spots.size())));
+        }
+
+        @Override
+        public BlockPos nextCandidate(RandomSource rng) {
+            if (mode != Mode.CLUSTER || centre == null || clusterExhausted) return null;
+
+            final ChunkPos next = clusterChunks.pollFirst();
+            if (next == null) return null; // last chunks still in flight: random samples feed the fallback meanwhile
+            clusterOutstanding++;
+            return next.getMiddleBlockPosition(0);
+        }
+
+        @Override
+        public void candidateFinished() {
+            if (clusterOutstanding > 0) clusterOutstanding--;
+            if (clusterOutstanding == 0 && clusterChunks != null && clusterChunks.isEmpty() && !clusterExhausted) {
+                clusterExhausted = true;
+                for (BlockPos spot : outsideSpots) {
+                    if (spots.size() < players.size() && isFarFromSpots(spot)) spots.add(spot);
+                }
+                outsideSpots.clear();
+            }
+        }
+
+        @Override
+        public void offer(BlockPos[] found, int count) {
+            for (int i = 0; i < count && spots.size() < players.size(); i++) {
+                final BlockPos spot = found[i];
+
+                if (mode == Mode.CLUSTER && !clusterExhausted) {
+                    if (centre == null) {
+                        startCluster(spot);
+                    } else if (horizontalDistSqr(spot, centre) > (long) clusterRadius * clusterRadius) {
+                        if (outsideSpots.size() < players.size()) outsideSpots.add(spot);
+                        continue;
+                    }
+                }
+
+                if (isFarFromSpots(spot)) spots.add(spot);
+            }
+        }
+
+        @Override
+        public boolean isDone() {
+            return running != this || spots.size() >= players.size();
+        }
+
+        private void startCluster(BlockPos spot) {
+            centre = spot;
+
+            final ChunkPos c = new ChunkPos(spot);
+            final int r = (clusterRadius + 15) >> 4;
+            final List<ChunkPos> around = new ArrayList<>();
+            for (int dx = -r; dx <= r; dx++) {
+                for (int dz = -r; dz <= r; dz++) {
+                    if (dx != 0 || dz != 0) around.add(new ChunkPos(c.x + dx, c.z + dz));
+                }
+            }
+            around.sort(Comparator.comparingInt(p -> (p.x - c.x) * (p.x - c.x) + (p.z - c.z) * (p.z - c.z)));
+            clusterChunks = new ArrayDeque<>(around);
+        }
+
+        private boolean isFarFromSpots(BlockPos spot) {
+            final long min2 = (long) minSeparation * minSeparation;
+            for (BlockPos s : spots) {
+                if (horizontalDistSqr(s, spot) < min2) return false;
+            }
+            return true;
+        }
+
+        private static long horizontalDistSqr(BlockPos a, BlockPos b) {
+            final long dx = a.getX() - b.getX();
+            final long dz = a.getZ() - b.getZ();
+            return dx * dx + dz * dz;
+        }
+    }
+}
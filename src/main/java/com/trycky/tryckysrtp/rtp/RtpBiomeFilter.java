@@ -0,0 +1,77 @@
+package com.trycky.tryckysrtp.rtp;
+
+import com.trycky.tryckysrtp.RtpConfig;
+import net.minecraft.core.Holder;
+import net.minecraft.core.QuartPos;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerChunkCache;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.level.biome.Biome;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * W18 — Biome pre-rejection of candidates, before any chunk is loaded or generated.
+ *
+ * The biome comes from the dimension's BiomeSource + climate sampler (pure noise, no chunk access),
+ * sampled at sea level. Entries of search.biomeDenylist are biome ids or #tags.
+ */
+public final class RtpBiomeFilter {
+    private RtpBiomeFilter() {}
+
+    private static List<? extends String> resolvedFrom = null;
+    private static Set<ResourceKey<Biome>> deniedBiomes = Set.of();
+    private static List<TagKey<Biome>> deniedTags = List.of();
+
+    public static boolean rejects(ServerLevel level, int x, int z) {
+        resolve();
+        if (deniedBiomes.isEmpty() && deniedTags.isEmpty()) return false;
+
+        final ServerChunkCache source = level.getChunkSource();
+        final Holder<Biome> biome = source.getGenerator().getBiomeSource().getNoiseBiome(
+                QuartPos.fromBlock(x),
+                QuartPos.fromBlock(level.getSeaLevel()),
+                QuartPos.fromBlock(z),
+                source.randomState().sampler()
+        );
+
+        for (TagKey<Biome> tag : deniedTags) {
+            if (biome.is(tag)) return true;
+        }
+        return biome.unwrapKey().map(deniedBiomes::contains).orElse(false);
+    }
+
+    public static void clearCache() {
+        resolvedFrom = null;
+    }
+
+    private static void resolve() {
+        final List<? extends String> raw = RtpConfig.BIOME_DENYLIST.get();
+        if (raw == resolvedFrom) return;
+
+        final Set<ResourceKey<Biome>> biomes = new HashSet<>();
+        final List<TagKey<Biome>> tags = new ArrayList<>();
+        for (String entry : raw) {
+            if (entry == null || entry.isBlank()) continue;
+            final String s = entry.trim();
+
+            if (s.startsWith("#")) {
+                final ResourceLocation rl = ResourceLocation.tryParse(s.substring(1));
+                if (rl != null) tags.add(TagKey.create(Registries.BIOME, rl));
+            } else {
+                final ResourceLocation rl = ResourceLocation.tryParse(s);
+                if (rl != null) biomes.add(ResourceKey.create(Registries.BIOME, rl));
+            }
+        }
+
+        deniedBiomes = biomes;
+        deniedTags = tags;
+        resolvedFrom = raw;
+    }
+}
@@ -0,0 +1,135 @@
+package com.trycky.tryckysrtp.rtp;
+
+import com.trycky.tryckysrtp.RtpConfig;
+import com.trycky.tryckysrtp.RtpLogger;
+import com.trycky.tryckysrtp.TryckysRTP;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.level.EmptyBlockGetter;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.CampfireBlock;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Safety flags for every block state, indexed by {@link Block#BLOCK_STATE_REGISTRY} id.
+ *
+ * Built once (server start, datapack reload, config reload) so the search only does array reads.
+ * States with a dynamic shape (no shape cache, e.g. moving pistons) are flagged DYNAMIC_SHAPE:
+ * callers check those against the level, everything else is position-independent.
+ */
+public final class RtpBlockSafetyTable {
+    private RtpBlockSafetyTable() {}
+
+    public static final int AIR_LIKE = 1;        // empty collision shape
+    public static final int STURDY_TOP = 1 << 1; // full top face
+    public static final int DANGEROUS = 1 << 2;  // built-in hazards + safety.dangerousGroundTag
+    public static final int LEAVES = 1 << 3;
+    public static final int LIQUID = 1 << 4;     // non-empty fluid state
+    public static final int DYNAMIC_SHAPE = 1 << 5;
+
+    /** Always dangerous, whatever the tag contains. */
+    private static final Set<Block> BUILTIN_DANGEROUS = Set.of(
+            Blocks.MAGMA_BLOCK,
+            Blocks.CACTUS,
+            Blocks.SOUL_CAMPFIRE,
+            Blocks.CAMPFIRE,
+            Blocks.FIRE,
+            Blocks.SOUL_FIRE,
+            Blocks.SWEET_BERRY_BUSH,
+            Blocks.WITHER_ROSE
+    );
+
+    private static volatile byte[] table = null;
+
+    /**
+     * Drops the table; it is rebuilt on next use.
+     */
+    public static void invalidate() {
+        table = null;
+    }
+
+    public static void rebuild() {
+        rebuild(parseTag(RtpConfig.DANGEROUS_GROUND_TAG.get()));
+    }
+
+    /**
+     * Builds the table with an explicit dangerous tag (null = none), without reading the config.
+     */
+    static void rebuild(TagKey<Block> dangerousTag) {
+        final byte[] t = new byte[Block.BLOCK_STATE_REGISTRY.size()];
+        for (BlockState state : Block.BLOCK_STATE_REGISTRY) {
+            final int id = Block.BLOCK_STATE_REGISTRY.getId(state);
+            if (id >= 0 && id < t.length) t[id] = (byte) computeFlags(state, dangerousTag);
+        }
+        table = t;
+
+        RtpLogger.debug(TryckysRTP.LOGGER, "RTP safety table built ({} block states, dangerous tag {})", t.length, dangerousTag == null ? "none" : dangerousTag.location());
+    }
+
+    public static int flags(BlockState state) {
+        byte[] t = table;
+        if (t == null) {
+            rebuild();
+            t = table;
+        }
+
+        final int id = Block.BLOCK_STATE_REGISTRY.getId(state);
+        if (id < 0 || id >= t.length) return computeFlags(state, parseTag(RtpConfig.DANGEROUS_GROUND_TAG.get()));
+        return t[id];
+    }
+
+    public static boolean isAirLike(ServerLevel level, BlockPos pos, BlockState state, int flags) {
+        if ((flags & DYNAMIC_SHAPE) != 0) return state.getCollisionShape(level, pos).isEmpty();
+        return (flags & AIR_LIKE) != 0;
+    }
+
+    public static boolean isSturdyTop(ServerLevel level, BlockPos pos, BlockState state, int flags) {
+        if ((flags & DYNAMIC_SHAPE) != 0) return state.isFaceSturdy(level, pos, Direction.UP);
+        return (flags & STURDY_TOP) != 0;
+    }
+
+    /**
+     * Palette pre-check: true if some position could make this state air-like.
+     */
+    public static boolean maybeAirLike(BlockState state) {
+        return (flags(state) & (AIR_LIKE | DYNAMIC_SHAPE)) != 0;
+    }
+
+    private static int computeFlags(BlockState state, TagKey<Block> dangerousTag) {
+        int f = 0;
+
+        if (state.getBlock().hasDynamicShape()) {
+            f |= DYNAMIC_SHAPE;
+        } else {
+            // Shapes come from the state's cache here: level/pos are not used.
+            if (state.getCollisionShape(EmptyBlockGetter.INSTANCE, BlockPos.ZERO).isEmpty()) f |= AIR_LIKE;
+            if (state.isFaceSturdy(EmptyBlockGetter.INSTANCE, BlockPos.ZERO, Direction.UP)) f |= STURDY_TOP;
+        }
+
+        final Block block = state.getBlock();
+        if (BUILTIN_DANGEROUS.contains(block) || block instanceof CampfireBlock) f |= DANGEROUS;
+        if (dangerousTag != null && state.is(dangerousTag)) f |= DANGEROUS;
+        if (state.is(BlockTags.LEAVES)) f |= LEAVES;
+        if (!state.getFluidState().isEmpty()) f |= LIQUID;
+
+        return f;
+    }
+
+    private static TagKey<Block> parseTag(String raw) {
+        String id = Objects.toString(raw, "").trim();
+        if (id.startsWith("#")) id = id.substring(1);
+        if (id.isEmpty()) return null;
+
+        final ResourceLocation rl = ResourceLocation.tryParse(id);
+        return (rl != null) ? TagKey.create(Registries.BLOCK, rl) : null;
+    }
+}
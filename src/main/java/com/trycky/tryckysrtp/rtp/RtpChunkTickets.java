@@ -0,0 +1,107 @@
+package com.trycky.tryckysrtp.rtp;
+
+import com.trycky.tryckysrtp.RtpSettings;
+import com.trycky.tryckysrtp.TryckysRTP;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+import java.util.Comparator;
+
+/**
+ * Async chunk acquisition for the RTP search.
+ *
+ * ServerChunkCache#getChunkFuture blocks when called from the server thread, so we never use it here:
+ * a region ticket asks the chunk map to load/generate the chunk on its worker threads,
+ * and the caller polls {@link #getIfLoaded} on later ticks.
+ *
+ * W33 — Ticket lifecycle:
+ * - SEARCH tickets of rejected candidates are removed as soon as the chunk is evaluated ({@link #release}),
+ *   instead of keeping the chunk loaded until the ticket expires.
+ * - ARRIVAL: the destination and arrival.preloadRadius chunks around it are loaded before the teleport,
+ *   and kept for ARRIVAL_TICKET_LIFESPAN_TICKS after it (the ticket is refreshed on teleport), so the client
+ *   gets its first chunks without waiting on worldgen.
+ *
+ * W34 — PREGEN tickets: /rtp pregen generates the RTP ring the same way, one FULL chunk per ticket,
+ * removed as soon as the chunk is loaded (it is then saved and unloaded by the chunk map).
+ */
+public final class RtpChunkTickets {
+    private RtpChunkTickets() {}
+
+    /** Ticket level 33 (distance 0) => FULL chunk, not ticking. */
+    private static final int FULL_DISTANCE = 0;
+
+    /** Safety net: the ticket expires on its own if a search is dropped. */
+    static final int SEARCH_TICKET_LIFESPAN_TICKS = 20 * 15;
+
+    static final TicketType<ChunkPos> SEARCH = TicketType.create(
+            TryckysRTP.MODID + ":search",
+            Comparator.comparingLong(ChunkPos::toLong),
+            SEARCH_TICKET_LIFESPAN_TICKS
+    );
+
+    /** Hold time of the arrival area after the last (re)request. */
+    static final int ARRIVAL_TICKET_LIFESPAN_TICKS = 20 * 10;
+
+    /** Teleport anyway if the arrival area is not fully loaded after this long. */
+    static final int ARRIVAL_PRELOAD_MAX_TICKS = 20 * 5;
+
+    static final TicketType<ChunkPos> ARRIVAL = TicketType.create(
+            TryckysRTP.MODID + ":arrival",
+            Comparator.comparingLong(ChunkPos::toLong),
+            ARRIVAL_TICKET_LIFESPAN_TICKS
+    );
+
+    /** Safety net for pregen tickets (RtpPregen removes them itself, or gives up on the chunk earlier). */
+    static final int PREGEN_TICKET_LIFESPAN_TICKS = 20 * 60;
+
+    static final TicketType<ChunkPos> PREGEN = TicketType.create(
+            TryckysRTP.MODID + ":pregen",
+            Comparator.comparingLong(ChunkPos::toLong),
+            PREGEN_TICKET_LIFESPAN_TICKS
+    );
+
+    static void request(ServerLevel level, ChunkPos pos) {
+        level.getChunkSource().addRegionTicket(SEARCH, pos, FULL_DISTANCE, pos);
+    }
+
+    static void release(ServerLevel level, ChunkPos pos) {
+        level.getChunkSource().removeRegionTicket(SEARCH, pos, FULL_DISTANCE, pos);
+    }
+
+    static void requestPregen(ServerLevel level, ChunkPos pos) {
+        level.getChunkSource().addRegionTicket(PREGEN, pos, FULL_DISTANCE, pos);
+    }
+
+    static void releasePregen(ServerLevel level, ChunkPos pos) {
+        level.getChunkSource().removeRegionTicket(PREGEN, pos, FULL_DISTANCE, pos);
+    }
+
+    /**
+     * Requests (or refreshes) the arrival area: FULL chunks within arrival.preloadRadius of the destination.
+     */
+    static void holdArrival(ServerLevel level, BlockPos feet) {
+        final ChunkPos cp = new ChunkPos(feet);
+        level.getChunkSource().addRegionTicket(ARRIVAL, cp, RtpSettings.get().arrivalPreloadRadius(), cp);
+    }
+
+    static boolean isArrivalLoaded(ServerLevel level, BlockPos feet) {
+        final ChunkPos cp = new ChunkPos(feet);
+        final int r = RtpSettings.get().arrivalPreloadRadius();
+        for (int dx = -r; dx <= r; dx++) {
+            for (int dz = -r; dz <= r; dz++) {
+                if (level.getChunkSource().getChunkNow(cp.x + dx, cp.z + dz) == null) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Non-blocking: returns the chunk only if it is already FULL and visible.
+     */
+    static LevelChunk getIfLoaded(ServerLevel level, ChunkPos pos) {
+        return level.getChunkSource().getChunkNow(pos.x, pos.z);
+    }
+}
@@ -0,0 +1,301 @@
+package com.trycky.tryckysrtp.rtp;
+
+import com.trycky.tryckysrtp.RtpSettings;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+
+import java.util.function.Predicate;
+
+/**
+ * Top-down column scan on a loaded chunk (same rules and result as the per-block search).
+ *
+ * Strategy:
+ * - Reads block states straight from the chunk sections (no level lookups, no BlockPos per level).
+ * - Sliding window head (y+1) / feet (y) / ground (y-1): one new state read per Y,
+ *   classified once through {@link RtpBlockSafetyTable} (array reads instead of shape/tag lookups).
+ * - Whole sections are skipped when they cannot hold a candidate:
+ *   - no air-like state at all (palette check) => feet can't be there
+ *   - only air + sturdy ground required => only the bottom Y can stand on the section below
+ *
+ * W17: the start height comes from safeHeightMode. In skylight dims with surfaceOnlyInSkylightDims,
+ * the surface fast path only checks the heightmap position (no scan, no sky-light lookup).
+ *
+ * The scan itself only sees a {@link Column} (flags per Y), so it can be benchmarked on a synthetic column.
+ *
+ * W30: a column without a result reports the furthest check it reached ({@link Column#rejected}).
+ */
+final class RtpColumnScanner {
+    private RtpColumnScanner() {}
+
+    static final int NONE = Integer.MIN_VALUE;
+
+    /** Palette pre-check: true if the state might have an empty collision shape. */
+    private static final Predicate<BlockState> MAYBE_AIR_LIKE = RtpBlockSafetyTable::maybeAirLike;
+
+    /**
+     * What the scan reads from a column. Flags are {@link RtpBlockSafetyTable} flags.
+     */
+    interface Column {
+        int SECTION_MIXED = 0;
+        int SECTION_ONLY_AIR = 1;
+        int SECTION_NO_AIR_LIKE = 2;
+
+        int flags(int y);
+
+        /** Resolves DYNAMIC_SHAPE states; otherwise the AIR_LIKE flag. */
+        boolean isAirLike(int y, int flags);
+
+        /** Resolves DYNAMIC_SHAPE states; otherwise the STURDY_TOP flag. */
+        boolean isSturdyTop(int y, int flags);
+
+        boolean canSeeSky(int y);
+
+        int sectionKind(int sectionY);
+
+        /** Called once when the column has no safe Y. */
+        default void rejected(RtpRejections.Reason reason) {}
+    }
+
+    /**
+     * Safety rules of one search (settings + dimension + bypassUnsafe).
+     */
+    record Rules(boolean requireSturdy, boolean avoidLiquids, boolean surfaceOnly, int maxClear, boolean bypassUnsafe) {
+
+        static Rules of(ServerLevel level, boolean bypassUnsafe) {
+            final RtpSettings settings = RtpSettings.get();
+            return new Rules(
+                    !bypassUnsafe && settings.requireSolidGround(),
+                    !bypassUnsafe && settings.avoidLiquids(),
+                    !bypassUnsafe && settings.surfaceOnlyInSkylightDims() && level.dimensionType().hasSkyLight(),
+                    (!bypassUnsafe && level.dimensionType().hasCeiling()) ? settings.maxCeilingClearance() : 0,
+                    bypassUnsafe
+            );
+        }
+    }
+
+    static BlockPos findBest(ServerLevel level, LevelChunk chunk, int x, int z, int targetY, boolean bypassUnsafe,
+                             RtpRejections.Tracker rejections) {
+        final int yMin = level.getMinBuildHeight() + 1;
+        final int yMax = level.getMaxBuildHeight() - 2;
+
+        // Same as level.getHeight(...) for a loaded chunk
+        final int surfaceY = surfaceY(chunk, x & 15, z & 15);
+
+        final Rules rules = Rules.of(level, bypassUnsafe);
+        final ChunkColumn column = new ChunkColumn(level, chunk, x, z, rejections);
+
+        final int y = (rules.surfaceOnly() && RtpSettings.get().surfaceFastPath())
+                ? checkSurface(column, surfaceY, yMin, yMax, rules)
+                : scan(column, yMin, yMax, Mth.clamp(surfaceY + 16, yMin, yMax), targetY, rules);
+
+        RtpMetrics.recordColumn(column.reads);
+        return (y == NONE) ? null : new BlockPos(x, y, z);
+    }
+
+    /**
+     * First free Y above the configured heightmap (safeHeightMode).
+     */
+    static int surfaceY(LevelChunk chunk, int lx, int lz) {
+        return chunk.getHeight(RtpSettings.get().safeHeightmap(), lx, lz) + 1;
+    }
+
+    /**
+     * Best feet Y (closest to targetY) scanning down from startY, or {@link #NONE}.
+     */
+    static int scan(Column col, int yMin, int yMax, int startY, int targetY, Rules rules) {
+        final int maxBuild = yMax + 2;
+
+        int bestY = NONE;
+        int bestScore = Integer.MAX_VALUE;
+
+        int y = startY;
+        int headFlags = col.flags(y + 1);
+        int feetFlags = col.flags(y);
+        int groundFlags = col.flags(y - 1);
+
+        int checkedSectionY = Integer.MIN_VALUE;
+        RtpRejections.Reason furthest = RtpRejections.Reason.NO_STANDING_SPACE;
+
+        while (y >= yMin) {
+            final int sectionY = SectionPos.blockToSectionCoord(y);
+            if (sectionY != checkedSectionY) {
+                checkedSectionY = sectionY;
+
+                final int bottom = SectionPos.sectionToBlockCoord(sectionY);
+                final int kind = col.sectionKind(sectionY);
+
+                int jumpTo = y;
+                if (kind == Column.SECTION_ONLY_AIR) {
+                    // Ground inside an all-air section is never sturdy: only its bottom Y can qualify.
+                    if (rules.requireSturdy()) jumpTo = Math.max(bottom, yMin);
+                } else if (kind == Column.SECTION_NO_AIR_LIKE) {
+                    // Nothing to stand in: continue at the top of the section below.
+                    jumpTo = bottom - 1;
+                }
+
+                if (jumpTo != y) {
+                    y = jumpTo;
+                    if (y < yMin) break;
+
+                    headFlags = col.flags(y + 1);
+                    feetFlags = col.flags(y);
+                    groundFlags = col.flags(y - 1);
+                    continue;
+                }
+            }
+
+            final RtpRejections.Reason reject = check(col, y, headFlags, feetFlags, groundFlags, maxBuild, rules, true);
+            if (reject != null) {
+                if (reject.ordinal() > furthest.ordinal()) furthest = reject;
+            } else {
+                final int score = Math.abs(y - targetY);
+                if (score < bestScore) {
+                    bestScore = score;
+                    bestY = y;
+                    if (bestScore == 0) break;
+                }
+            }
+
+            // slide the window down by one
+            y--;
+            if (y < yMin) break;
+
+            headFlags = feetFlags;
+            feetFlags = groundFlags;
+            groundFlags = col.flags(y - 1);
+        }
+
+        if (bestY == NONE) col.rejected(furthest);
+        return bestY;
+    }
+
+    /**
+     * Surface fast path: feet right above the heightmap, three-block check only. Returns feetY or {@link #NONE}.
+     */
+    static int checkSurface(Column col, int feetY, int yMin, int yMax, Rules rules) {
+        if (feetY < yMin || feetY > yMax) {
+            col.rejected(RtpRejections.Reason.NO_STANDING_SPACE);
+            return NONE;
+        }
+
+        final int headFlags = col.flags(feetY + 1);
+        final int feetFlags = col.flags(feetY);
+        final int groundFlags = col.flags(feetY - 1);
+
+        final RtpRejections.Reason reject = check(col, feetY, headFlags, feetFlags, groundFlags, yMax + 2, rules, false);
+        if (reject != null) {
+            col.rejected(reject);
+            return NONE;
+        }
+        return feetY;
+    }
+
+    /**
+     * Checks one feet Y in {@link RtpRejections.Reason} order; null if it is safe.
+     */
+    private static RtpRejections.Reason check(Column col, int y, int headFlags, int feetFlags, int groundFlags,
+                                              int maxBuild, Rules rules, boolean checkSky) {
+        if (!col.isAirLike(y, feetFlags) || !col.isAirLike(y + 1, headFlags)) return RtpRejections.Reason.NO_STANDING_SPACE;
+
+        final RtpRejections.Reason ground = groundReject(col, y, headFlags | feetFlags | groundFlags, groundFlags, rules);
+        if (ground != null) return ground;
+
+        if (checkSky && rules.surfaceOnly() && !col.canSeeSky(y)) return RtpRejections.Reason.NO_SKY;
+        if (rules.maxClear() > 0 && ceilingClearance(col, y, maxBuild, rules.maxClear() + 1) > rules.maxClear()) {
+            return RtpRejections.Reason.CEILING_CLEARANCE;
+        }
+        return null;
+    }
+
+    private static RtpRejections.Reason groundReject(Column col, int y, int windowFlags, int groundFlags, Rules rules) {
+        if (rules.requireSturdy() && !col.isSturdyTop(y - 1, groundFlags)) return RtpRejections.Reason.GROUND_NOT_STURDY;
+        if (rules.bypassUnsafe()) return null;
+
+        final RtpRejections.Reason hazard = RtpSafeTeleport.hazardousGround(groundFlags);
+        if (hazard != null) return hazard;
+
+        return (rules.avoidLiquids() && (windowFlags & RtpBlockSafetyTable.LIQUID) != 0) ? RtpRejections.Reason.LIQUID : null;
+    }
+
+    private static int ceilingClearance(Column col, int feetY, int maxBuild, int maxScan) {
+        for (int i = 1; i <= maxScan; i++) {
+            final int y = feetY + i;
+            if (y >= maxBuild) return maxScan;
+            if (!col.isAirLike(y, col.flags(y))) return i;
+        }
+        return maxScan;
+    }
+
+    /**
+     * Column of a loaded chunk, read from its sections.
+     */
+    private static final class ChunkColumn implements Column {
+        private final ServerLevel level;
+        private final LevelChunk chunk;
+        private final LevelChunkSection[] sections;
+        private final int x;
+        private final int z;
+        private final int lx;
+        private final int lz;
+        private final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        private final RtpRejections.Tracker rejections;
+        /** W28: block reads, reported once per column. */
+        int reads;
+
+        ChunkColumn(ServerLevel level, LevelChunk chunk, int x, int z, RtpRejections.Tracker rejections) {
+            this.level = level;
+            this.chunk = chunk;
+            this.sections = chunk.getSections();
+            this.x = x;
+            this.z = z;
+            this.lx = x & 15;
+            this.lz = z & 15;
+            this.rejections = rejections;
+        }
+
+        private BlockState stateAt(int y) {
+            return sections[chunk.getSectionIndex(y)].getBlockState(lx, y & 15, lz);
+        }
+
+        @Override
+        public int flags(int y) {
+            reads++;
+            return RtpBlockSafetyTable.flags(stateAt(y));
+        }
+
+        @Override
+        public boolean isAirLike(int y, int flags) {
+            if ((flags & RtpBlockSafetyTable.DYNAMIC_SHAPE) == 0) return (flags & RtpBlockSafetyTable.AIR_LIKE) != 0;
+            return RtpBlockSafetyTable.isAirLike(level, pos.set(x, y, z), stateAt(y), flags);
+        }
+
+        @Override
+        public boolean isSturdyTop(int y, int flags) {
+            if ((flags & RtpBlockSafetyTable.DYNAMIC_SHAPE) == 0) return (flags & RtpBlockSafetyTable.STURDY_TOP) != 0;
+            return RtpBlockSafetyTable.isSturdyTop(level, pos.set(x, y, z), stateAt(y), flags);
+        }
+
+        @Override
+        public boolean canSeeSky(int y) {
+            return level.canSeeSky(pos.set(x, y, z));
+        }
+
+        @Override
+        public int sectionKind(int sectionY) {
+            final LevelChunkSection section = sections[chunk.getSectionIndexFromSectionY(sectionY)];
+            if (section.hasOnlyAir()) return SECTION_ONLY_AIR;
+            if (!section.maybeHas(MAYBE_AIR_LIKE)) return SECTION_NO_AIR_LIKE;
+            return SECTION_MIXED;
+        }
+
+        @Override
+        public void rejected(RtpRejections.Reason reason) {
+            if (rejections != null) rejections.offer(reason);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.trycky.tryckysrtp.rtp;
+
+import com.trycky.tryckysrtp.RtpLogger;
+import com.trycky.tryckysrtp.RtpSettings;
+import com.trycky.tryckysrtp.TryckysRTP;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * W15 — Per-dimension pool of already validated safe destinations.
+ *
+ * Strategy:
+ * - Background searches (no owner) keep each allowed dimension at pool.targetSize.
+ * - /rtp pops one entry (O(1)); the job re-checks it with a cheap feet-position test before use.
+ * - Live search is only the fallback (empty pool or stale entry).
+ * - Cleared on reload: entries depend on radius/safety config.
+ */
+public final class RtpDestinationPool {
+    private RtpDestinationPool() {}
+
+    private static final Map<ResourceKey<Level>, ArrayDeque<BlockPos>> pools = new HashMap<>();
+    private static final Map<ResourceKey<Level>, Integer> refillsInFlight = new HashMap<>();
+
+    private static int tickCounter = 0;
+    /** Bumped on clear so results of refills started with an older config are dropped. */
+    private static int generation = 0;
+
+    /**
+     * Returns a pooled destination for this dimension, or null if the pool is empty.
+     */
+    public static BlockPos poll(ServerLevel level) {
+        final ArrayDeque<BlockPos> pool = pools.get(level.dimension());
+        return (pool != null) ? pool.pollFirst() : null;
+    }
+
+    public static int size(ServerLevel level) {
+        final ArrayDeque<BlockPos> pool = pools.get(level.dimension());
+        return (pool != null) ? pool.size() : 0;
+    }
+
+    public static void onServerTick(MinecraftServer server) {
+        final RtpSettings settings = RtpSettings.get();
+        final int target = settings.poolTargetSize();
+        if (target <= 0) return;
+
+        final int period = settings.poolRefillIntervalTicks();
+        tickCounter++;
+        if (tickCounter < period) return;
+        tickCounter = 0;
+
+        final int maxConcurrent = settings.poolMaxConcurrentRefills();
+
+        for (ServerLevel level : server.getAllLevels()) {
+            if (!RtpSafeTeleport.isRtpAllowedInDimension(level)) continue;
+
+            final ResourceKey<Level> dim = level.dimension();
+            final int inFlight = refillsInFlight.getOrDefault(dim, 0);
+            final int missing = target - size(level) - inFlight;
+
+            for (int i = 0; i < Math.min(missing, maxConcurrent - inFlight); i++) {
+                startRefill(level);
+            }
+        }
+    }
+
+    private static void startRefill(ServerLevel level) {
+        final ResourceKey<Level> dim = level.dimension();
+        final int startedGeneration = generation;
+
+        final RtpSearchJob job = new RtpSearchJob(level, null, level.getSeaLevel(), false, (searchLevel, result) -> {
+            if (startedGeneration != generation) return;
+            refillsInFlight.merge(dim, -1, Integer::sum);
+
+            if (!result.success) return;
+            final ArrayDeque<BlockPos> pool = pools.computeIfAbsent(dim, k -> new ArrayDeque<>());
+            if (pool.size() < RtpSettings.get().poolTargetSize()) {
+                pool.addLast(result.pos);
+                RtpLogger.debug(TryckysRTP.LOGGER, "RTP pool {}: +{} ({} ready)", dim.location(), result.pos, pool.size());
+            }
+        });
+
+        if (RtpSearchScheduler.submit(job)) {
+            refillsInFlight.merge(dim, 1, Integer::sum);
+        }
+    }
+
+    public static void clearAll() {
+        pools.clear();
+        refillsInFlight.clear();
+        tickCounter = 0;
+        generation++;
+    }
+}
@@ -0,0 +1,194 @@
+package com.trycky.tryckysrtp.rtp;
+
+import com.trycky.tryckysrtp.RtpLogger;
+import com.trycky.tryckysrtp.TryckysRTP;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.Util;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.dimension.DimensionType;
+import net.minecraft.world.level.storage.LevelResource;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * W19 — Index of chunks that already exist on disk, per dimension (search.preferGeneratedTerrain).
+ *
+ * Strategy:
+ * - Built off-thread from the 4 KiB location table of every region/r.X.Z.mca (memory-mapped, no chunk data read).
+ * - One 1024-bit bitmap (16 longs) per region file.
+ * - Kept current from ChunkDataEvent.Save (main thread); saves seen while building are merged once it is ready.
+ * - Until the index is ready, every chunk is reported as generated (no bias).
+ * - If the scan fails, the index starts empty: chunks count as not generated until they are saved again.
+ *
+ * A chunk present in a region file may be a partially generated proto-chunk; it is still far cheaper to finish than to generate.
+ */
+public final class RtpGeneratedChunkIndex {
+    private RtpGeneratedChunkIndex() {}
+
+    private static final int REGION_CHUNKS = 32 * 32;
+    private static final int HEADER_BYTES = REGION_CHUNKS * 4;
+
+    private static final Map<ResourceKey<Level>, DimensionIndex> indexes = new HashMap<>();
+
+    private static final class DimensionIndex {
+        CompletableFuture<Long2ObjectOpenHashMap<long[]>> building;
+        Long2ObjectOpenHashMap<long[]> regions;
+        final LongArrayList pendingSaves = new LongArrayList();
+
+        boolean isReady() {
+            if (regions != null) return true;
+            if (building == null || !building.isDone()) return false;
+
+            regions = building.getNow(null);
+            building = null;
+            if (regions == null) regions = new Long2ObjectOpenHashMap<>();
+
+            for (int i = 0; i < pendingSaves.size(); i++) set(regions, pendingSaves.getLong(i));
+            pendingSaves.clear();
+            return true;
+        }
+    }
+
+    /**
+     * True if the chunk exists on disk. Also true while the index of this dimension is still being built.
+     */
+    public static boolean isGenerated(ServerLevel level, int chunkX, int chunkZ) {
+        final DimensionIndex index = indexes.computeIfAbsent(level.dimension(), k -> startBuild(level));
+        if (!index.isReady()) return true;
+
+        final long[] bits = index.regions.get(ChunkPos.asLong(chunkX >> 5, chunkZ >> 5));
+        if (bits == null) return false;
+
+        final int i = (chunkX & 31) + ((chunkZ & 31) << 5);
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * True once the index of this dimension is built (starts building it if needed).
+     */
+    public static boolean isReady(ServerLevel level) {
+        return indexes.computeIfAbsent(level.dimension(), k -> startBuild(level)).isReady();
+    }
+
+    /**
+     * Records a saved chunk (ChunkDataEvent.Save). Dimensions never queried are ignored.
+     */
+    public static void onChunkSaved(ServerLevel level, ChunkPos pos) {
+        final DimensionIndex index = indexes.get(level.dimension());
+        if (index == null) return;
+
+        if (index.isReady()) {
+            set(index.regions, pos.toLong());
+        } else {
+            index.pendingSaves.add(pos.toLong());
+        }
+    }
+
+    public static void clearAll() {
+        for (DimensionIndex index : indexes.values()) {
+            if (index.building != null) index.building.cancel(false);
+        }
+        indexes.clear();
+    }
+
+    private static DimensionIndex startBuild(ServerLevel level) {
+        final ResourceKey<Level> dim = level.dimension();
+        final Path regionDir = DimensionType.getStorageFolder(dim, level.getServer().getWorldPath(LevelResource.ROOT)).resolve("region");
+
+        final DimensionIndex index = new DimensionIndex();
+        index.building = CompletableFuture.supplyAsync(() -> scanRegionDir(dim, regionDir), Util.ioPool())
+                .exceptionally(ex -> {
+                    RtpLogger.warn(TryckysRTP.LOGGER, "RTP chunk index: scan of {} failed, starting empty", regionDir, ex);
+                    return null;
+                });
+        return index;
+    }
+
+    private static Long2ObjectOpenHashMap<long[]> scanRegionDir(ResourceKey<Level> dim, Path regionDir) {
+        final long start = System.nanoTime();
+        final Long2ObjectOpenHashMap<long[]> regions = new Long2ObjectOpenHashMap<>();
+        if (!Files.isDirectory(regionDir)) return regions;
+
+        int chunks = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(regionDir, "r.*.*.mca")) {
+            for (Path file : files) {
+                final long regionKey = parseRegionKey(file.getFileName().toString());
+                if (regionKey == Long.MIN_VALUE) continue;
+
+                final long[] bits = readLocationTable(file);
+                if (bits == null) continue;
+
+                regions.put(regionKey, bits);
+                for (long word : bits) chunks += Long.bitCount(word);
+            }
+        } catch (IOException ex) {
+            RtpLogger.warn(TryckysRTP.LOGGER, "RTP chunk index: cannot list {}", regionDir, ex);
+        }
+
+        RtpLogger.debug(TryckysRTP.LOGGER, "RTP chunk index {}: {} chunks in {} regions ({} ms)",
+                dim.location(), chunks, regions.size(), (System.nanoTime() - start) / 1_000_000L);
+        return regions;
+    }
+
+    /**
+     * Location table: 1024 big-endian ints (offset << 8 | sectors), non-zero when the chunk is stored.
+     */
+    private static long[] readLocationTable(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) return null;
+
+            final MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            final IntBuffer locations = header.asIntBuffer();
+
+            final long[] bits = new long[REGION_CHUNKS / 64];
+            for (int i = 0; i < REGION_CHUNKS; i++) {
+                if (locations.get(i) != 0) bits[i >>> 6] |= 1L << i;
+            }
+            return bits;
+        } catch (IOException ex) {
+            RtpLogger.debug(TryckysRTP.LOGGER, "RTP chunk index: cannot read {}: {}", file, ex.toString());
+            return null;
+        }
+    }
+
+    /**
+     * "r.X.Z.mca" -> ChunkPos-packed region coords, or Long.MIN_VALUE if malformed.
+     */
+    private static long parseRegionKey(String name) {
+        final String[] parts = name.split("\\.");
+        if (parts.length != 4) return Long.MIN_VALUE;
+        try {
+            return ChunkPos.asLong(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+        } catch (NumberFormatException ex) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private static void set(Long2ObjectOpenHashMap<long[]> regions, long chunkKey) {
+        final int chunkX = ChunkPos.getX(chunkKey);
+        final int chunkZ = ChunkPos.getZ(chunkKey);
+
+        long[] bits = regions.get(ChunkPos.asLong(chunkX >> 5, chunkZ >> 5));
+        if (bits == null) {
+            bits = new long[REGION_CHUNKS / 64];
+            regions.put(ChunkPos.asLong(chunkX >> 5, chunkZ >> 5), bits);
+        }
+
+        final int i = (chunkX & 31) + ((chunkZ & 31) << 5);
+        bits[i >>> 6] |= 1L << i;
+    }
+}
@@ -0,0 +1,116 @@
+package com.trycky.tryckysrtp.rtp;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * W29 — Java Flight Recorder events, so RTP work shows up by name in recordings.
+ *
+ * - Search: a whole search job, from /rtp (or a pool refill) to its result (spans several ticks).
+ * - ChunkAcquire: one candidate chunk, from ticket request until it is loaded.
+ *   Origin (disk / generated) comes from ChunkEvent.Load via {@link RtpMetrics}; "unknown" if no load event was seen.
+ * - Teleport: the teleport call itself.
+ *
+ * Without a running recording, shouldCommit() is a field read and nothing is written;
+ * stack traces are off (the thread is always the server thread).
+ */
+public final class RtpJfrEvents {
+    private RtpJfrEvents() {}
+
+    private static final String CATEGORY = "Trycky's RTP";
+
+    /** ChunkAcquire origins. */
+    public static final String ORIGIN_DISK = "disk";
+    public static final String ORIGIN_GENERATED = "generated";
+    public static final String ORIGIN_UNKNOWN = "unknown";
+
+    @Name("tryckysrtp.Search")
+    @Label("RTP Search")
+    @Description("Safe destination search, from request to result")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class Search extends Event {
+        @Label("Dimension")
+        public String dimension;
+
+        @Label("Player")
+        @Description("Player UUID, empty for background (pool) searches")
+        public String player;
+
+        @Label("Attempts")
+        public int attempts;
+
+        @Label("Chunk Requests")
+        public int chunkRequests;
+
+        @Label("Pooled")
+        @Description("Started from a pre-validated pool destination")
+        public boolean pooled;
+
+        @Label("Result")
+        @Description("ok, failed or cancelled")
+        public String result;
+    }
+
+    @Name("tryckysrtp.ChunkAcquire")
+    @Label("RTP Chunk Acquire")
+    @Description("Candidate chunk requested by a search until it is loaded")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class ChunkAcquire extends Event {
+        @Label("Dimension")
+        public String dimension;
+
+        @Label("Chunk X")
+        public int chunkX;
+
+        @Label("Chunk Z")
+        public int chunkZ;
+
+        @Label("Origin")
+        @Description("disk, generated or unknown")
+        public String origin;
+
+        @Label("Timed Out")
+        public boolean timedOut;
+    }
+
+    @Name("tryckysrtp.Teleport")
+    @Label("RTP Teleport")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class Teleport extends Event {
+        @Label("Dimension")
+        public String dimension;
+
+        @Label("Player")
+        public String player;
+
+        @Label("X")
+        public int x;
+
+        @Label("Y")
+        public int y;
+
+        @Label("Z")
+        public int z;
+    }
+
+    /**
+     * Registers the event types up front so they are listed in JFR before the first /rtp.
+     */
+    public static void register() {
+        try {
+            FlightRecorder.register(Search.class);
+            FlightRecorder.register(ChunkAcquire.class);
+            FlightRecorder.register(Teleport.class);
+        } catch (Throwable ignored) {
+            // JFR not available in this runtime: events are simply never recorded
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.trycky.tryckysrtp.rtp;
+
+import com.trycky.tryckysrtp.RtpConfig;
+import com.trycky.tryckysrtp.RtpLogger;
+import com.trycky.tryckysrtp.TryckysRTP;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * W28 — Low-overhead search metrics, shown by /rtp metrics (and optionally logged periodically).
+ *
+ * - Counters are LongAdders, histograms use power-of-two buckets (one atomic add per sample).
+ * - Recorded once per finished search / chunk request / column, never per block.
+ * - Chunk loads vs generations: chunks requested by searches are matched (per dimension) against ChunkEvent.Load#isNewChunk.
+ *   Requests a search never took back are dropped after PENDING_MAX_AGE_TICKS; server thread only.
+ * - {@link #reset()} starts a new window; counters are not synchronized with each other (a snapshot may be off by one).
+ */
+public final class RtpMetrics {
+    private RtpMetrics() {}
+
+    /**
+     * Histogram with buckets [0], [1], [2..3], [4..7], ... (value bucket = bit length).
+     */
+    public static final class Log2Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(64);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+
+        public void record(long value) {
+            final long v = Math.max(0L, value);
+            buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(v));
+            count.increment();
+            sum.add(v);
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        public double mean() {
+            final long n = count.sum();
+            return (n == 0) ? 0.0 : sum.sum() / (double) n;
+        }
+
+        /**
+         * Upper bound of the bucket holding the given quantile (0..1), 0 if empty.
+         */
+        public long quantileUpperBound(double q) {
+            final long n = count.sum();
+            if (n == 0) return 0L;
+
+            final long rank = (long) Math.ceil(q * n);
+            long seen = 0L;
+            for (int i = 0; i < 64; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) return (i == 0) ? 0L : (1L << i) - 1L;
+            }
+            return Long.MAX_VALUE;
+        }
+
+        void reset() {
+            for (int i = 0; i < 64; i++) buckets.set(i, 0L);
+            count.reset();
+            sum.reset();
+        }
+    }
+
+    public static final class DimensionStats {
+        public final LongAdder successes = new LongAdder();
+        public final LongAdder failures = new LongAdder();
+    }
+
+    public static final LongAdder searchesStarted = new LongAdder();
+    public static final LongAdder searchesSucceeded = new LongAdder();
+    public static final LongAdder searchesFailed = new LongAdder();
+    public static final LongAdder searchesCancelled = new LongAdder();
+    public static final LongAdder pooledHits = new LongAdder();
+
+    public static final LongAdder chunkRequests = new LongAdder();
+    public static final LongAdder chunksLoaded = new LongAdder();
+    public static final LongAdder chunksGenerated = new LongAdder();
+    public static final LongAdder chunkTimeouts = new LongAdder();
+
+    public static final LongAdder columnsScanned = new LongAdder();
+    public static final LongAdder blocksScanned = new LongAdder();
+
+    /** Player searches only (background refills would skew it). */
+    public static final Log2Histogram searchMillis = new Log2Histogram();
+    public static final Log2Histogram attemptsPerSuccess = new Log2Histogram();
+    public static final Log2Histogram chunkRequestsPerSearch = new Log2Histogram();
+
+    private static final Map<ResourceKey<Level>, DimensionStats> byDimension = new ConcurrentHashMap<>();
+    /** Per dimension: requested chunk -> (request tick << 2 | origin seen by ChunkEvent.Load, PENDING until then). */
+    private static final Map<ResourceKey<Level>, Long2LongOpenHashMap> pendingChunkRequests = new HashMap<>();
+    private static final long PENDING = 0;
+    private static final long FROM_DISK = 1;
+    private static final long GENERATED = 2;
+    private static final long ORIGIN_MASK = 3;
+    /** Well past a search ticket's lifespan: the search was dropped without taking its chunk back. */
+    private static final int PENDING_MAX_AGE_TICKS = 2 * RtpChunkTickets.SEARCH_TICKET_LIFESPAN_TICKS;
+
+    private static volatile long windowStartMillis = System.currentTimeMillis();
+    private static int minutesSinceLog = 0;
+
+    private static final int TICKS_PER_MINUTE = 20 * 60;
+
+    static void recordChunkRequest(ServerLevel level, ChunkPos pos) {
+        chunkRequests.increment();
+        pendingChunkRequests.computeIfAbsent(level.dimension(), k -> new Long2LongOpenHashMap())
+                .put(pos.toLong(), ((long) level.getServer().getTickCount() << 2) | PENDING);
+    }
+
+    /**
+     * Forgets a requested chunk once its search is done with it; returns its origin (RtpJfrEvents.ORIGIN_*).
+     */
+    static String takeChunkOrigin(ServerLevel level, ChunkPos pos) {
+        final Long2LongOpenHashMap pending = pendingChunkRequests.get(level.dimension());
+        if (pending == null || !pending.containsKey(pos.toLong())) return RtpJfrEvents.ORIGIN_UNKNOWN;
+
+        final long origin = pending.remove(pos.toLong()) & ORIGIN_MASK;
+        if (origin == PENDING) return RtpJfrEvents.ORIGIN_UNKNOWN;
+        return (origin == GENERATED) ? RtpJfrEvents.ORIGIN_GENERATED : RtpJfrEvents.ORIGIN_DISK;
+    }
+
+    /**
+     * ChunkEvent.Load: counts chunks that a search asked for, split by loaded from disk vs generated.
+     */
+    public static void onChunkLoad(ServerLevel level, ChunkPos pos, boolean newChunk) {
+        final Long2LongOpenHashMap pending = pendingChunkRequests.get(level.dimension());
+        if (pending == null || pending.isEmpty()) return;
+
+        final long key = pos.toLong();
+        final long value = pending.getOrDefault(key, -1L);
+        if (value < 0 || (value & ORIGIN_MASK) != PENDING) return;
+
+        pending.put(key, (value & ~ORIGIN_MASK) | (newChunk ? GENERATED : FROM_DISK));
+        (newChunk ? chunksGenerated : chunksLoaded).increment();
+    }
+
+    static void recordColumn(int blocks) {
+        columnsScanned.increment();
+        blocksScanned.add(blocks);
+    }
+
+    static void recordSearch(ServerLevel level, boolean background, boolean success, int attempts, int chunkRequestCount, long nanos) {
+        (success ? searchesSucceeded : searchesFailed).increment();
+
+        final DimensionStats dim = byDimension.computeIfAbsent(level.dimension(), k -> new DimensionStats());
+        (success ? dim.successes : dim.failures).increment();
+
+        if (background) return;
+        searchMillis.record(nanos / 1_000_000L);
+        chunkRequestsPerSearch.record(chunkRequestCount);
+        if (success) attemptsPerSuccess.record(attempts);
+    }
+
+    /**
+     * Optional periodic summary (logging.metricsIntervalMinutes). Checked once per minute.
+     */
+    public static void onServerTick(MinecraftServer server) {
+        if (server.getTickCount() % TICKS_PER_MINUTE != 0) return;
+
+        final long oldest = server.getTickCount() - PENDING_MAX_AGE_TICKS;
+        for (Long2LongOpenHashMap pending : pendingChunkRequests.values()) {
+            pending.long2LongEntrySet().removeIf(e -> (e.getLongValue() >> 2) < oldest);
+        }
+
+        final int interval = RtpConfig.METRICS_LOG_INTERVAL_MINUTES.get();
+        if (interval <= 0 || ++minutesSinceLog < interval) return;
+        minutesSinceLog = 0;
+
+        if (searchesStarted.sum() == 0) return; // nothing happened
+        for (String line : summary()) RtpLogger.info(TryckysRTP.LOGGER, "RTP metrics: {}", line.strip());
+    }
+
+    public static Map<ResourceKey<Level>, DimensionStats> byDimension() {
+        return byDimension;
+    }
+
+    public static long windowStartMillis() {
+        return windowStartMillis;
+    }
+
+    public static void reset() {
+        for (LongAdder a : List.of(searchesStarted, searchesSucceeded, searchesFailed, searchesCancelled, pooledHits,
+                chunkRequests, chunksLoaded, chunksGenerated, chunkTimeouts, columnsScanned, blocksScanned)) {
+            a.reset();
+        }
+        searchMillis.reset();
+        attemptsPerSuccess.reset();
+        chunkRequestsPerSearch.reset();
+        byDimension.clear();
+        pendingChunkRequests.clear();
+        windowStartMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Human-readable summary lines (command output and periodic log).
+     */
+    public static List<String> summary() {
+        final List<String> lines = new ArrayList<>();
+        final long windowSec = Math.max(0L, (System.currentTimeMillis() - windowStartMillis) / 1000L);
+        final long ok = searchesSucceeded.sum();
+        final long failed = searchesFailed.sum();
+        final long done = ok + failed;
+
+        lines.add(String.format(Locale.ROOT, "Window: %ds | searches: %d started, %d ok, %d failed, %d cancelled (%.1f%% ok), pool hits: %d",
+                windowSec, searchesStarted.sum(), ok, failed, searchesCancelled.sum(), (done == 0) ? 0.0 : ok * 100.0 / done, pooledHits.sum()));
+        lines.add(String.format(Locale.ROOT, "Latency (player, ms): mean %.1f, p50 <= %d, p95 <= %d, p99 <= %d (n=%d)",
+                searchMillis.mean(), searchMillis.quantileUpperBound(0.50), searchMillis.quantileUpperBound(0.95), searchMillis.quantileUpperBound(0.99), searchMillis.count()));
+        lines.add(String.format(Locale.ROOT, "Attempts per success: mean %.2f, p95 <= %d | chunk requests per search: mean %.2f, p95 <= %d",
+                attemptsPerSuccess.mean(), attemptsPerSuccess.quantileUpperBound(0.95), chunkRequestsPerSearch.mean(), chunkRequestsPerSearch.quantileUpperBound(0.95)));
+        lines.add(String.format(Locale.ROOT, "Chunks: %d requested, %d loaded from disk, %d generated, %d timed out | columns: %d, blocks: %d",
+                chunkRequests.sum(), chunksLoaded.sum(), chunksGenerated.sum(), chunkTimeouts.sum(), columnsScanned.sum(), blocksScanned.sum()));
+
+        for (Map.Entry<ResourceKey<Level>, DimensionStats> e : byDimension.entrySet()) {
+            final long s = e.getValue().successes.sum();
+            final long f = e.getValue().failures.sum();
+            lines.add(String.format(Locale.ROOT, "  %s: %d ok, %d failed (%.1f%% ok)",
+                    e.getKey().location(), s, f, (s + f == 0) ? 0.0 : s * 100.0 / (s + f)));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,344 @@
+package com.trycky.tryckysrtp.rtp;
+
+import com.trycky.tryckysrtp.RtpConfig;
+import com.trycky.tryckysrtp.RtpLogger;
+import com.trycky.tryckysrtp.RtpSettings;
+import com.trycky.tryckysrtp.TryckysRTP;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * W34 — Background pregeneration of the RTP area, so searches find chunks on disk instead of waiting on worldgen.
+ *
+ * - Walks the chunks of the radiusMin..radiusMax ring (around the shared spawn) in square-spiral order
+ *   ({@link RtpPregenSpiral}), inside out; chunks outside the ring are stepped over, chunks already on disk or
+ *   loaded are skipped.
+ * - Generation goes through PREGEN region tickets (worldgen stays on the chunk map's workers), released as soon
+ *   as the chunk is FULL so it is saved and unloaded.
+ * - Per tick: pregen.tickBudgetMillis of walking, at most pregen.maxConcurrentChunks in flight, and no new
+ *   requests while the server's average tick time is above pregen.pauseAboveMspt.
+ * - A chunk not FULL in time goes to a retry list; once the walk is done, the retry list is walked again,
+ *   up to {@link #MAX_RETRY_PASSES} times. Only what is still missing after that is counted as failed.
+ * - Progress lives in {@link RtpPregenData}: the cursor, the chunks in flight (requested again on resume) and the
+ *   retry lists. A chunk is counted once, when it is done, so a resumed run never counts a chunk twice.
+ *
+ * One run per dimension; /rtp pregen <dimension> [pause|status|cancel].
+ */
+public final class RtpPregen {
+    private RtpPregen() {}
+
+    /** A chunk not FULL after this long has its ticket removed and is retried later. */
+    private static final int CHUNK_TIMEOUT_TICKS = 20 * 30;
+    /** Walks of the retry list after the main walk, before giving up on a chunk. */
+    static final int MAX_RETRY_PASSES = 3;
+
+    public enum Start { STARTED, RESUMED, ALREADY_RUNNING, ALREADY_COMPLETE }
+
+    private static final Map<ResourceKey<Level>, Run> running = new LinkedHashMap<>();
+
+    /**
+     * Starts (or resumes where it stopped) the pregeneration of the current RTP area of this dimension.
+     */
+    public static Start start(ServerLevel level) {
+        if (running.containsKey(level.dimension())) return Start.ALREADY_RUNNING;
+
+        final RtpPregenData data = data(level);
+        final BlockPos spawn = level.getSharedSpawnPos();
+        final RtpSettings settings = RtpSettings.get();
+        final int inner = Math.max(settings.radiusMin(), settings.minDistanceFromSpawn());
+        final int outer = settings.radiusMax();
+
+        final boolean resume = data.isStarted() && data.matches(spawn.getX(), spawn.getZ(), inner, outer);
+        if (!resume) data.restart(spawn.getX(), spawn.getZ(), inner, outer, RtpPregenSpiral.firstSeq(inner));
+
+        if (isComplete(data)) {
+            data.running = false;
+            data.setDirty();
+            return Start.ALREADY_COMPLETE;
+        }
+
+        data.running = true;
+        data.setDirty();
+        running.put(level.dimension(), new Run(level, data));
+        RtpLogger.info(TryckysRTP.LOGGER, "RTP pregen {} in {}: ring {}..{} around ({}, {})",
+                resume ? "resumed" : "started", level.dimension().location(), inner, outer, spawn.getX(), spawn.getZ());
+        return resume ? Start.RESUMED : Start.STARTED;
+    }
+
+    /**
+     * Stops requesting chunks; the progress is kept and /rtp pregen resumes from it. False if not running.
+     */
+    public static boolean pause(ServerLevel level) {
+        final Run run = running.remove(level.dimension());
+        if (run == null) return false;
+
+        run.stop();
+        run.data.running = false;
+        run.data.setDirty();
+        return true;
+    }
+
+    /**
+     * Stops and forgets the progress of this dimension. False if there was nothing to cancel.
+     */
+    public static boolean cancel(ServerLevel level) {
+        final Run run = running.remove(level.dimension());
+        if (run != null) run.stop();
+
+        final RtpPregenData data = data(level);
+        if (run == null && !data.isStarted()) return false;
+        data.clear();
+        return true;
+    }
+
+    public static List<String> status(ServerLevel level) {
+        final List<String> lines = new ArrayList<>();
+        final Run active = running.get(level.dimension());
+        final RtpPregenData data = data(level);
+        if (active == null && !data.isStarted()) {
+            lines.add("No pregeneration in " + level.dimension().location() + ".");
+            return lines;
+        }
+
+        final String state = (active != null) ? "running" : isComplete(data) ? "complete" : "paused";
+        lines.add(String.format(Locale.ROOT, "%s: %s, %.1f%% (ring %d..%d around %d, %d)",
+                level.dimension().location(), state, progress(data) * 100.0,
+                data.radiusMin, data.radiusMax, data.centerX, data.centerZ));
+        lines.add(String.format(Locale.ROOT, "Chunks: %d generated, %d already present, %d failed, %d in flight, %d waiting for retry",
+                data.generated, data.skipped, data.failed, data.inFlight.size(), data.pendingRetries()));
+        if (data.retryPass > 0) {
+            lines.add(String.format(Locale.ROOT, "Retry pass %d of %d", data.retryPass, MAX_RETRY_PASSES));
+        }
+        if (active != null) {
+            lines.add(String.format(Locale.ROOT, "Rate: %.1f chunks/s%s", active.chunksPerSecond(),
+                    active.waitingForIndex ? " (waiting for the chunk index)" : active.throttled ? " (paused: server MSPT high)" : ""));
+        }
+        return lines;
+    }
+
+    /**
+     * Server start: resumes the runs that were still running when the server stopped.
+     */
+    public static void resumeSaved(MinecraftServer server) {
+        for (ServerLevel level : server.getAllLevels()) {
+            if (data(level).running) start(level);
+        }
+    }
+
+    public static void onServerTick(MinecraftServer server) {
+        if (running.isEmpty()) return;
+
+        final long tick = server.getTickCount();
+        final double maxMspt = RtpConfig.PREGEN_PAUSE_ABOVE_MSPT.get();
+        final boolean throttled = maxMspt > 0 && server.getAverageTickTimeNanos() > maxMspt * 1_000_000L;
+        final long deadline = System.nanoTime() + (long) (RtpConfig.PREGEN_TICK_BUDGET_MILLIS.get() * 1_000_000L);
+        final int maxInFlight = RtpConfig.PREGEN_MAX_CONCURRENT_CHUNKS.get();
+
+        final Iterator<Run> it = running.values().iterator();
+        while (it.hasNext()) {
+            final Run run = it.next();
+            run.throttled = throttled;
+            run.poll(tick);
+            run.nextRetryPass();
+            if (!throttled) run.requestMore(tick, deadline, maxInFlight);
+
+            if (isComplete(run.data)) {
+                it.remove();
+                run.finish();
+            }
+        }
+    }
+
+    /**
+     * Server stop: forgets the runs. Their data stays marked running (with the chunks in flight) and resumes on next start.
+     */
+    public static void clearAll() {
+        running.clear();
+    }
+
+    private static RtpPregenData data(ServerLevel level) {
+        return level.getDataStorage().computeIfAbsent(RtpPregenData.factory(), RtpPregenData.DATA_NAME);
+    }
+
+    /** Main walk done, nothing in flight, and the retry list empty or out of passes. */
+    static boolean isComplete(RtpPregenData data) {
+        return data.cursor >= RtpPregenSpiral.endSeq(data.radiusMax)
+                && data.inFlight.isEmpty()
+                && data.retryNow.isEmpty()
+                && (data.retryLater.isEmpty() || data.retryPass >= MAX_RETRY_PASSES);
+    }
+
+    /** Share of the main walk behind the cursor; retry passes are reported separately. */
+    static double progress(RtpPregenData data) {
+        final long startSeq = RtpPregenSpiral.firstSeq(data.radiusMin);
+        final long endSeq = RtpPregenSpiral.endSeq(data.radiusMax);
+        final long done = Math.max(data.cursor, startSeq) - startSeq;
+        return Math.min(1.0, done / (double) Math.max(1L, endSeq - startSeq));
+    }
+
+    private static final class Run {
+        final ServerLevel level;
+        final RtpPregenData data;
+        final int centerChunkX;
+        final int centerChunkZ;
+        final long endSeq;
+        final long startNanos = System.nanoTime();
+
+        /** Saved in-flight indexes of a resumed run, requested again before anything else. */
+        final LongArrayList requeued;
+        /** Spiral index -> tick of the request, for the chunks this run holds a ticket on. */
+        final Long2LongOpenHashMap requested = new Long2LongOpenHashMap();
+        long doneThisSession = 0;
+        boolean throttled = false;
+        boolean waitingForIndex = false;
+
+        Run(ServerLevel level, RtpPregenData data) {
+            this.level = level;
+            this.data = data;
+            this.centerChunkX = data.centerX >> 4;
+            this.centerChunkZ = data.centerZ >> 4;
+            this.endSeq = RtpPregenSpiral.endSeq(data.radiusMax);
+            this.requeued = new LongArrayList(data.inFlight);
+        }
+
+        double chunksPerSecond() {
+            final double seconds = (System.nanoTime() - startNanos) / 1e9;
+            return (seconds <= 0.0) ? 0.0 : doneThisSession / seconds;
+        }
+
+        void poll(long tick) {
+            final ObjectIterator<Long2LongMap.Entry> it = requested.long2LongEntrySet().fastIterator();
+            while (it.hasNext()) {
+                final Long2LongMap.Entry e = it.next();
+                final long seq = e.getLongKey();
+                final ChunkPos pos = chunkAt(seq);
+
+                if (RtpChunkTickets.getIfLoaded(level, pos) != null) {
+                    data.generated++;
+                    doneThisSession++;
+                } else if (tick - e.getLongValue() > CHUNK_TIMEOUT_TICKS) {
+                    data.retryLater.add(seq);
+                    RtpLogger.debug(TryckysRTP.LOGGER, "RTP pregen: chunk {} in {} timed out, retrying later", pos, level.dimension().location());
+                } else {
+                    continue;
+                }
+                RtpChunkTickets.releasePregen(level, pos);
+                data.inFlight.rem(seq);
+                data.setDirty();
+                it.remove();
+            }
+        }
+
+        /** Main walk over and everything in flight settled: the chunks that timed out get another go. */
+        void nextRetryPass() {
+            if (data.cursor < endSeq || !data.inFlight.isEmpty() || !data.retryNow.isEmpty()) return;
+            if (data.retryLater.isEmpty() || data.retryPass >= MAX_RETRY_PASSES) return;
+
+            data.retryPass++;
+            data.retryNow.addAll(data.retryLater);
+            data.retryLater.clear();
+            data.setDirty();
+            RtpLogger.info(TryckysRTP.LOGGER, "RTP pregen in {}: retry pass {} for {} chunks",
+                    level.dimension().location(), data.retryPass, data.retryNow.size());
+        }
+
+        void requestMore(long tick, long deadline, int maxInFlight) {
+            // Skipping relies on the region-file index: until it is built it reports every chunk as present
+            waitingForIndex = !RtpGeneratedChunkIndex.isReady(level);
+            if (waitingForIndex) return;
+
+            // Order: chunks in flight when the run was saved, the main walk, then the current retry pass
+            while (requested.size() < maxInFlight && System.nanoTime() < deadline) {
+                if (!requeued.isEmpty()) {
+                    final long seq = requeued.popLong();
+                    // Already in data.inFlight: generated while we were away counts as generated, not skipped
+                    if (isPresent(chunkAt(seq))) {
+                        settle(seq);
+                    } else {
+                        request(seq, tick, false);
+                    }
+                } else if (data.cursor < endSeq) {
+                    final long seq = data.cursor++;
+                    data.setDirty();
+                    final ChunkPos pos = chunkAt(seq);
+                    if (!RtpPregenSpiral.chunkIntersectsRing(pos.x, pos.z, data.centerX, data.centerZ, data.radiusMin, data.radiusMax)) continue;
+
+                    if (isPresent(pos)) {
+                        data.skipped++;
+                        doneThisSession++;
+                    } else {
+                        request(seq, tick, true);
+                    }
+                } else if (!data.retryNow.isEmpty()) {
+                    final long seq = data.retryNow.popLong();
+                    data.setDirty();
+                    // We asked for it before: finishing after its timeout still makes it one we generated
+                    if (isPresent(chunkAt(seq))) {
+                        data.generated++;
+                        doneThisSession++;
+                    } else {
+                        request(seq, tick, true);
+                    }
+                } else {
+                    return;
+                }
+            }
+        }
+
+        /** Counts as generated a saved in-flight chunk found present on resume. */
+        private void settle(long seq) {
+            data.inFlight.rem(seq);
+            data.generated++;
+            data.setDirty();
+            doneThisSession++;
+        }
+
+        private void request(long seq, long tick, boolean track) {
+            RtpChunkTickets.requestPregen(level, chunkAt(seq));
+            requested.put(seq, tick);
+            if (track) {
+                data.inFlight.add(seq);
+                data.setDirty();
+            }
+        }
+
+        /** Gives up on what is left in the retry list. */
+        void finish() {
+            data.failed += data.retryLater.size();
+            data.retryLater.clear();
+            data.running = false;
+            data.setDirty();
+            RtpLogger.info(TryckysRTP.LOGGER, "RTP pregen complete in {}: {} generated, {} already present, {} failed",
+                    level.dimension().location(), data.generated, data.skipped, data.failed);
+        }
+
+        /** Releases the tickets; data.inFlight keeps the chunks so the next run requests them again. */
+        void stop() {
+            for (long seq : requested.keySet()) RtpChunkTickets.releasePregen(level, chunkAt(seq));
+            requested.clear();
+        }
+
+        private boolean isPresent(ChunkPos pos) {
+            return RtpGeneratedChunkIndex.isGenerated(level, pos.x, pos.z) || RtpChunkTickets.getIfLoaded(level, pos) != null;
+        }
+
+        private ChunkPos chunkAt(long seq) {
+            return new ChunkPos(centerChunkX + RtpPregenSpiral.offsetX(seq), centerChunkZ + RtpPregenSpiral.offsetZ(seq));
+        }
+    }
+}
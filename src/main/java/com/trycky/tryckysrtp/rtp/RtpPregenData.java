@@ -0,0 +1,117 @@
+package com.trycky.tryckysrtp.rtp;
+
+import com.trycky.tryckysrtp.TryckysRTP;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.level.saveddata.SavedData;
+
+/**
+ * W34 — Pregeneration state of one dimension, kept live by {@link RtpPregen} and saved with the world.
+ *
+ * The walk is a square spiral of chunks ({@link RtpPregenSpiral}), so its position is a single index ({@link #cursor}).
+ * Chunks requested but not loaded yet ({@link #inFlight}) are requested again on resume; chunks that timed out wait
+ * in the retry lists. Every chunk is counted once, when it is done.
+ * The area (centre + radii) is stored with it: a run started under other settings restarts from the beginning.
+ */
+public final class RtpPregenData extends SavedData {
+
+    static final String DATA_NAME = TryckysRTP.MODID + "_pregen";
+
+    int centerX;
+    int centerZ;
+    int radiusMin;
+    int radiusMax;
+
+    /** Next spiral index to walk, -1 if never started. */
+    long cursor = -1L;
+    /** Spiral indexes requested and not loaded yet. */
+    final LongArrayList inFlight = new LongArrayList();
+    /** Timed-out indexes retried in the current pass / in the next one. */
+    final LongArrayList retryNow = new LongArrayList();
+    final LongArrayList retryLater = new LongArrayList();
+    int retryPass;
+
+    long generated;
+    long skipped;
+    /** Given up after every retry pass. */
+    long failed;
+    /** True while running: resumed on server start. */
+    boolean running;
+
+    public RtpPregenData() {}
+
+    static SavedData.Factory<RtpPregenData> factory() {
+        return new SavedData.Factory<>(RtpPregenData::new, RtpPregenData::load);
+    }
+
+    boolean isStarted() {
+        return cursor >= 0;
+    }
+
+    boolean matches(int centerX, int centerZ, int radiusMin, int radiusMax) {
+        return this.centerX == centerX && this.centerZ == centerZ && this.radiusMin == radiusMin && this.radiusMax == radiusMax;
+    }
+
+    void restart(int centerX, int centerZ, int radiusMin, int radiusMax, long startCursor) {
+        clear();
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.radiusMin = radiusMin;
+        this.radiusMax = radiusMax;
+        this.cursor = startCursor;
+    }
+
+    void clear() {
+        cursor = -1L;
+        inFlight.clear();
+        retryNow.clear();
+        retryLater.clear();
+        retryPass = 0;
+        generated = 0;
+        skipped = 0;
+        failed = 0;
+        running = false;
+        setDirty();
+    }
+
+    int pendingRetries() {
+        return retryNow.size() + retryLater.size();
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag, HolderLookup.Provider provider) {
+        tag.putInt("centerX", centerX);
+        tag.putInt("centerZ", centerZ);
+        tag.putInt("radiusMin", radiusMin);
+        tag.putInt("radiusMax", radiusMax);
+        tag.putLong("cursor", cursor);
+        tag.putLongArray("inFlight", inFlight.toLongArray());
+        tag.putLongArray("retryNow", retryNow.toLongArray());
+        tag.putLongArray("retryLater", retryLater.toLongArray());
+        tag.putInt("retryPass", retryPass);
+        tag.putLong("generated", generated);
+        tag.putLong("skipped", skipped);
+        tag.putLong("failed", failed);
+        tag.putBoolean("running", running);
+        return tag;
+    }
+
+    public static RtpPregenData load(CompoundTag tag, HolderLookup.Provider provider) {
+        final RtpPregenData data = new RtpPregenData();
+        data.centerX = tag.getInt("centerX");
+        data.centerZ = tag.getInt("centerZ");
+        data.radiusMin = tag.getInt("radiusMin");
+        data.radiusMax = tag.getInt("radiusMax");
+        data.cursor = tag.contains("cursor") ? tag.getLong("cursor") : -1L;
+        data.inFlight.addElements(0, tag.getLongArray("inFlight"));
+        data.retryNow.addElements(0, tag.getLongArray("retryNow"));
+        data.retryLater.addElements(0, tag.getLongArray("retryLater"));
+        data.retryPass = tag.getInt("retryPass");
+        data.generated = tag.getLong("generated");
+        data.skipped = tag.getLong("skipped");
+        data.failed = tag.getLong("failed");
+        data.running = tag.getBoolean("running");
+        return data;
+    }
+}
@@ -0,0 +1,75 @@
+package com.trycky.tryckysrtp.rtp;
+
+/**
+ * W34 — Chunk walk order of /rtp pregen: a square spiral around the centre chunk, inside out.
+ *
+ * Index 0 is the centre chunk; ring k >= 1 (chunks at Chebyshev distance k) holds indexes [(2k-1)^2, (2k+1)^2),
+ * starting at (-k, -k) and going +x, +z, -x, -z. A walk position is a single long, which is what gets saved.
+ */
+final class RtpPregenSpiral {
+    private RtpPregenSpiral() {}
+
+    /** First index of ring k. */
+    static long ringStart(long k) {
+        return (k == 0) ? 0L : (2 * k - 1) * (2 * k - 1);
+    }
+
+    static long ringOf(long seq) {
+        long k = (long) Math.floor((Math.sqrt((double) seq) + 1.0) / 2.0);
+        while (k > 0 && ringStart(k) > seq) k--;
+        while (ringStart(k + 1) <= seq) k++;
+        return k;
+    }
+
+    /** Chunk X offset from the centre chunk. */
+    static int offsetX(long seq) {
+        final long k = ringOf(seq);
+        if (k == 0) return 0;
+
+        final long i = seq - ringStart(k);
+        final long side = 2 * k;
+        if (i < side) return (int) (-k + i);
+        if (i < 2 * side) return (int) k;
+        if (i < 3 * side) return (int) (k - (i - 2 * side));
+        return (int) -k;
+    }
+
+    /** Chunk Z offset from the centre chunk. */
+    static int offsetZ(long seq) {
+        final long k = ringOf(seq);
+        if (k == 0) return 0;
+
+        final long i = seq - ringStart(k);
+        final long side = 2 * k;
+        if (i < side) return (int) -k;
+        if (i < 2 * side) return (int) (-k + (i - side));
+        if (i < 3 * side) return (int) k;
+        return (int) (k - (i - 3 * side));
+    }
+
+    /** First index worth walking: inner rings never reach the inner radius (far corners at most (k + 1) * 16 * sqrt(2) away). */
+    static long firstSeq(int innerRadius) {
+        return ringStart(Math.max(0L, (long) Math.floor(innerRadius / (16.0 * Math.sqrt(2.0))) - 1));
+    }
+
+    /** Index after the last ring that can reach the outer radius (its near edge is at least (k - 1) * 16 away). */
+    static long endSeq(int outerRadius) {
+        return ringStart(outerRadius / 16 + 2);
+    }
+
+    /**
+     * True if some block column of the chunk lies in the ring (nearest point inside the outer radius, farthest outside the inner one).
+     */
+    static boolean chunkIntersectsRing(int chunkX, int chunkZ, int centerX, int centerZ, int innerRadius, int outerRadius) {
+        final long x0 = ((long) chunkX << 4) - centerX, x1 = x0 + 15;
+        final long z0 = ((long) chunkZ << 4) - centerZ, z1 = z0 + 15;
+
+        final long nearX = Math.max(x0, Math.min(0L, x1));
+        final long nearZ = Math.max(z0, Math.min(0L, z1));
+        final long farX = Math.max(Math.abs(x0), Math.abs(x1));
+        final long farZ = Math.max(Math.abs(z0), Math.abs(z1));
+
+        return nearX * nearX + nearZ * nearZ <= (long) outerRadius * outerRadius
+                && farX * farX + farZ * farZ >= (long) innerRadius * innerRadius;
+    }
+}
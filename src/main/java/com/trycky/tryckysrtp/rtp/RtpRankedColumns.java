@@ -0,0 +1,86 @@
+package com.trycky.tryckysrtp.rtp;
+
+import java.util.Arrays;
+
+/**
+ * W20/W32 — Validation order of one chunk's in-area columns, best first.
+ *
+ * - The best maxColumns are validated, in slices if needed ({@link #validate}).
+ * - If none of them is safe, {@link #sweepRest} checks the other columns until one is: only a chunk with no safe
+ *   in-area column at all is reported {@link #allRejected()}, which is what the unsafe chunk cache records.
+ */
+final class RtpRankedColumns {
+
+    /** Safe spot of one column (index z << 4 | x), or null. */
+    interface Validator<T> {
+        T validate(int column);
+    }
+
+    // Packed: score (high bits) | random tie-break (8 bits) | column index (8 bits)
+    private final int[] ranked;
+    private final int count;
+    private final int toValidate;
+    private int next = 0;
+    private int found = 0;
+    private boolean swept = false;
+
+    /**
+     * @param packed (score << 16) | (tie-break << 8) | column, one per in-area column; sorted here
+     */
+    RtpRankedColumns(int[] packed, int count, int maxColumns) {
+        Arrays.sort(packed, 0, count);
+        this.ranked = packed;
+        this.count = count;
+        this.toValidate = Math.min(count, maxColumns);
+    }
+
+    static int pack(int score, int tieBreak, int column) {
+        return (score << 16) | ((tieBreak & 0xFF) << 8) | (column & 0xFF);
+    }
+
+    /**
+     * Validates up to maxColumns more of the ranked columns (and at most out.length); safe spots go to out from index 0,
+     * returns how many.
+     */
+    <T> int validate(int maxColumns, T[] out, Validator<T> validator) {
+        final int end = Math.min(toValidate, next + Math.min(maxColumns, out.length));
+
+        int n = 0;
+        for (; next < end; next++) {
+            final T spot = validator.validate(ranked[next] & 0xFF);
+            if (spot != null) out[n++] = spot;
+        }
+        found += n;
+        return n;
+    }
+
+    /**
+     * Once the ranked columns found nothing: validates the columns past them, stopping at the first safe one (returned).
+     */
+    <T> T sweepRest(Validator<T> validator) {
+        if (!isComplete() || found > 0 || swept) return null;
+        swept = true;
+
+        for (int k = toValidate; k < count; k++) {
+            final T spot = validator.validate(ranked[k] & 0xFF);
+            if (spot != null) {
+                found++;
+                return spot;
+            }
+        }
+        return null;
+    }
+
+    boolean isComplete() {
+        return next >= toValidate;
+    }
+
+    int found() {
+        return found;
+    }
+
+    /** True if every in-area column was validated without a safe spot. */
+    boolean allRejected() {
+        return isComplete() && found == 0 && (toValidate == count || swept);
+    }
+}
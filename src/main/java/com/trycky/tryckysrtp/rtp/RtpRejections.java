@@ -0,0 +1,111 @@
+package com.trycky.tryckysrtp.rtp;
+
+import com.trycky.tryckysrtp.RtpLogger;
+import com.trycky.tryckysrtp.RtpSettings;
+import com.trycky.tryckysrtp.TryckysRTP;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * W30 — Why attempts fail: one reason per failed attempt, counted per dimension.
+ *
+ * - Pre-load rejections (biome, known unsafe chunk) and chunk timeouts are recorded as they happen.
+ * - A failed column reports the check that got furthest along its Ys (enum order = check order),
+ *   so a column that was only missing sky access reads NO_SKY rather than NO_STANDING_SPACE.
+ *   In CHUNK mode the attempt reports the furthest reason over its validated columns.
+ * - logging.rejectionTraceEvery = N logs every Nth rejection through RtpLogger.debug (0 = off).
+ *
+ * Shown by /rtp metrics rejections, reset with /rtp metrics reset.
+ */
+public final class RtpRejections {
+    private RtpRejections() {}
+
+    /** In-column reasons are ordered like the checks in {@link RtpColumnScanner}. */
+    public enum Reason {
+        BIOME_DENIED,
+        KNOWN_UNSAFE_CHUNK,
+        CHUNK_TIMEOUT,
+        POOLED_STALE,
+        NO_STANDING_SPACE,
+        GROUND_NOT_STURDY,
+        LEAVES,
+        DANGEROUS_GROUND,
+        LIQUID,
+        NO_SKY,
+        CEILING_CLEARANCE
+    }
+
+    private static final Reason[] REASONS = Reason.values();
+
+    /**
+     * Furthest in-column reason seen over one attempt.
+     */
+    static final class Tracker {
+        private Reason furthest;
+
+        void offer(Reason reason) {
+            if (furthest == null || reason.ordinal() > furthest.ordinal()) furthest = reason;
+        }
+
+        Reason furthest() {
+            return (furthest == null) ? Reason.NO_STANDING_SPACE : furthest;
+        }
+    }
+
+    private static final Map<ResourceKey<Level>, AtomicLongArray> byDimension = new ConcurrentHashMap<>();
+    private static long traceCounter = 0L;
+
+    static void record(ServerLevel level, Reason reason, int x, int z) {
+        byDimension.computeIfAbsent(level.dimension(), k -> new AtomicLongArray(REASONS.length))
+                .incrementAndGet(reason.ordinal());
+
+        final int every = RtpSettings.get().rejectionTraceEvery();
+        if (every > 0 && ++traceCounter % every == 0) {
+            RtpLogger.debug(TryckysRTP.LOGGER, "RTP reject {} at ({}, {}) in {}", reason, x, z, level.dimension().location());
+        }
+    }
+
+    public static void reset() {
+        byDimension.clear();
+        traceCounter = 0L;
+    }
+
+    /**
+     * One line per dimension, reasons sorted by count (zeros omitted).
+     */
+    public static List<String> summary() {
+        final List<String> lines = new ArrayList<>();
+        for (Map.Entry<ResourceKey<Level>, AtomicLongArray> e : byDimension.entrySet()) {
+            final AtomicLongArray counts = e.getValue();
+
+            long total = 0L;
+            final List<Reason> present = new ArrayList<>();
+            for (Reason r : REASONS) {
+                final long c = counts.get(r.ordinal());
+                if (c == 0) continue;
+                total += c;
+                present.add(r);
+            }
+            present.sort((a, b) -> Long.compare(counts.get(b.ordinal()), counts.get(a.ordinal())));
+
+            final StringBuilder sb = new StringBuilder();
+            sb.append(e.getKey().location()).append(" (").append(total).append("):");
+            for (Reason r : present) {
+                final long c = counts.get(r.ordinal());
+                sb.append(' ').append(r.name().toLowerCase(Locale.ROOT)).append(' ').append(c)
+                        .append(String.format(Locale.ROOT, " (%.0f%%)", c * 100.0 / total));
+            }
+            lines.add(sb.toString());
+        }
+        if (lines.isEmpty()) lines.add("No rejections recorded.");
+        return lines;
+    }
+}
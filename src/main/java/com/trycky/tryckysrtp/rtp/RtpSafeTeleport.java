@@ -2,27 +2,19 @@ package com.trycky.tryckysrtp.rtp;
 
 import com.trycky.tryckysrtp.RtpConfig;
 import com.trycky.tryckysrtp.RtpLogger;
+import com.trycky.tryckysrtp.RtpSettings;
 import com.trycky.tryckysrtp.TryckysRTP;
 import net.minecraft.core.BlockPos;
-import net.minecraft.core.Direction;
 import net.minecraft.resources.ResourceKey;
-import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.tags.BlockTags;
 import net.minecraft.util.Mth;
 import net.minecraft.util.RandomSource;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.Block;
-import net.minecraft.world.level.block.Blocks;
-import net.minecraft.world.level.block.CampfireBlock;
 import net.minecraft.world.level.block.state.BlockState;
-import net.minecraft.world.level.levelgen.Heightmap;
-import net.minecraft.world.level.material.FluidState;
+import net.minecraft.world.level.chunk.LevelChunk;
 
-import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 
 /**
@@ -47,63 +39,85 @@ public final class RtpSafeTeleport {
         public static Result fail(String msg) { return new Result(false, null, msg); }
     }
 
-    private static final Set<Block> DANGEROUS_GROUND = new HashSet<>(Set.of(
-            Blocks.MAGMA_BLOCK,
-            Blocks.CACTUS,
-            Blocks.SOUL_CAMPFIRE,
-            Blocks.CAMPFIRE,
-            Blocks.FIRE,
-            Blocks.SOUL_FIRE,
-            Blocks.SWEET_BERRY_BUSH,
-            Blocks.WITHER_ROSE
-    ));
-
-    private static final ResourceLocation NETHER_ID = ResourceLocation.parse("minecraft:the_nether");
-    private static final ResourceLocation END_ID = ResourceLocation.parse("minecraft:the_end");
+    public static final String NO_SAFE_SPOT_MESSAGE = "No safe spot found. Try again later or increase attempts/radius.";
 
     public static boolean isRtpAllowedInDimension(ServerLevel level) {
         final ResourceKey<Level> dimKey = level.dimension();
-        final ResourceLocation dimId = dimKey.location();
-
-        if (!RtpConfig.ALLOW_IN_NETHER.get() && dimId.equals(NETHER_ID)) return false;
-        if (!RtpConfig.ALLOW_IN_END.get() && dimId.equals(END_ID)) return false;
+        final RtpSettings settings = RtpSettings.get();
 
-        final RtpConfig.DimensionMode mode = RtpConfig.DIMENSION_MODE.get();
-        final List<? extends String> allowed = RtpConfig.ALLOWED_DIMENSIONS.get();
-        final List<? extends String> blocked = RtpConfig.BLOCKED_DIMENSIONS.get();
+        if (!settings.allowInNether() && dimKey == Level.NETHER) return false;
+        if (!settings.allowInEnd() && dimKey == Level.END) return false;
 
-        final String id = dimId.toString();
-        if (mode == RtpConfig.DimensionMode.ALLOWLIST) return allowed.contains(id);
-        return !blocked.contains(id);
+        if (settings.dimensionMode() == RtpConfig.DimensionMode.ALLOWLIST) return settings.allowedDimensions().contains(dimKey);
+        return !settings.blockedDimensions().contains(dimKey);
     }
 
-    public static Result findSafeDestination(ServerLevel level, ServerPlayer player, boolean bypassUnsafe) {
-        if (!isRtpAllowedInDimension(level)) return Result.fail("You cannot use /rtp in this dimension.");
+    /**
+     * Search area resolved from config once per search (radius swap, spawn center, attempts).
+     */
+    static final class Area {
+        final BlockPos center;
+        final int minR;
+        final int maxR;
+        final int minDistFromSpawn;
+        final int attemptsMax;
+
+        private Area(BlockPos center, int minR, int maxR, int minDistFromSpawn, int attemptsMax) {
+            this.center = center;
+            this.minR = minR;
+            this.maxR = maxR;
+            this.minDistFromSpawn = minDistFromSpawn;
+            this.attemptsMax = attemptsMax;
+        }
 
-        final int attemptsMax = RtpConfig.ATTEMPTS_MAX.get();
-        final int minDistFromSpawn = RtpConfig.MIN_DISTANCE_FROM_SPAWN.get();
+        static Area of(ServerLevel level) {
+            final RtpSettings settings = RtpSettings.get();
+            return new Area(
+                    level.getSharedSpawnPos(),
+                    settings.radiusMin(),
+                    settings.radiusMax(),
+                    settings.minDistanceFromSpawn(),
+                    settings.attemptsMax()
+            );
+        }
 
-        int minR = Math.max(0, RtpConfig.RADIUS_MIN.get());
-        int maxR = Math.max(0, RtpConfig.RADIUS_MAX.get());
-        if (maxR < minR) { int t = maxR; maxR = minR; minR = t; }
+        /**
+         * True if (x, z) is a position the sampler could return (annulus + min distance from spawn).
+         */
+        boolean contains(int x, int z) {
+            final long dx = x - center.getX();
+            final long dz = z - center.getZ();
+            final long d2 = dx * dx + dz * dz;
+
+            if (d2 > (long) maxR * maxR) return false;
+            if (d2 < (long) minR * minR) return false;
+            return d2 >= (long) minDistFromSpawn * minDistFromSpawn;
+        }
+    }
 
-        final BlockPos center = level.getSharedSpawnPos();
-        final RandomSource rng = level.getRandom();
+    /**
+     * W19: with search.preferGeneratedTerrain, redraws (up to generatedTerrainSamples) until the chunk exists on disk.
+     */
+    static BlockPos sampleCandidate(ServerLevel level, RandomSource rng, Area area) {
+        BlockPos xz = pickRandomXZInAnnulus(rng, area.center, area.minR, area.maxR, area.minDistFromSpawn);
+        final RtpSettings settings = RtpSettings.get();
+        if (!settings.preferGeneratedTerrain()) return xz;
+
+        final int samples = settings.generatedTerrainSamples();
+        for (int i = 1; i < samples; i++) {
+            if (RtpGeneratedChunkIndex.isGenerated(level, xz.getX() >> 4, xz.getZ() >> 4)) break;
+            xz = pickRandomXZInAnnulus(rng, area.center, area.minR, area.maxR, area.minDistFromSpawn);
+        }
+        return xz;
+    }
 
+    static int targetY(ServerLevel level, int preferredY) {
         final int yMin = level.getMinBuildHeight() + 1;
         final int yMax = level.getMaxBuildHeight() - 2;
-        final int targetY = Mth.clamp(player.blockPosition().getY(), yMin, yMax);
-
-        for (int attempt = 1; attempt <= attemptsMax; attempt++) {
-            final BlockPos candidateXZ = pickRandomXZInAnnulus(rng, center, minR, maxR, minDistFromSpawn);
-            final BlockPos safe = resolveBestSafeSpotInColumn(level, candidateXZ, targetY, bypassUnsafe);
-            if (safe != null) return Result.ok(safe);
-        }
-
-        return Result.fail("No safe spot found. Try again later or increase attempts/radius.");
+        return Mth.clamp(preferredY, yMin, yMax);
     }
 
-    private static BlockPos pickRandomXZInAnnulus(RandomSource rng, BlockPos center, int minR, int maxR, int minDistanceFromCenter) {
+    static BlockPos pickRandomXZInAnnulus(RandomSource rng, BlockPos center, int minR, int maxR, int minDistanceFromCenter) {
         if (maxR <= 0) return new BlockPos(center.getX(), 0, center.getZ());
 
         final double theta = rng.nextDouble() * (Math.PI * 2.0);
@@ -133,97 +147,193 @@ public final class RtpSafeTeleport {
         return new BlockPos(x, 0, z);
     }
 
-    private static BlockPos resolveBestSafeSpotInColumn(ServerLevel level, BlockPos xz, int targetY, boolean bypassUnsafe) {
-        final ChunkPos cp = new ChunkPos(xz);
-        level.getChunk(cp.x, cp.z);
+    /**
+     * Cheap checks done before the candidate's chunk is requested: denied biome (W18), known unsafe chunk (W20).
+     * Rejections are recorded in {@link RtpRejections} (W30).
+     */
+    static boolean rejectBeforeLoad(ServerLevel level, BlockPos xz, boolean bypassUnsafe) {
+        final RtpRejections.Reason reason;
+        if (RtpBiomeFilter.rejects(level, xz.getX(), xz.getZ())) {
+            reason = RtpRejections.Reason.BIOME_DENIED;
+        } else if (!bypassUnsafe && RtpUnsafeChunkCache.isKnownUnsafe(level, xz.getX() >> 4, xz.getZ() >> 4)) {
+            reason = RtpRejections.Reason.KNOWN_UNSAFE_CHUNK;
+        } else {
+            return false;
+        }
+        RtpRejections.record(level, reason, xz.getX(), xz.getZ());
+        return true;
+    }
 
-        final int yMin = level.getMinBuildHeight() + 1;
-        final int yMax = level.getMaxBuildHeight() - 2;
+    /**
+     * Evaluates a sampled candidate on its (loaded) chunk according to search.mode.
+     */
+    static BlockPos resolveCandidate(ServerLevel level, LevelChunk chunk, BlockPos xz, Area area, int targetY, boolean bypassUnsafe,
+                                     RandomSource rng) {
+        final RtpRejections.Tracker rejections = new RtpRejections.Tracker();
+        final BlockPos safe;
+        if (RtpSettings.get().searchMode() == RtpConfig.SearchMode.CHUNK) {
+            safe = resolveBestSafeSpotInChunk(level, chunk, xz, area, targetY, bypassUnsafe, rng, rejections);
+        } else {
+            safe = RtpColumnScanner.findBest(level, chunk, xz.getX(), xz.getZ(), targetY, bypassUnsafe, rejections);
+        }
 
-        int startY = level.getHeight(Heightmap.Types.MOTION_BLOCKING_NO_LEAVES, xz.getX(), xz.getZ());
-        startY = Mth.clamp(startY + 16, yMin, yMax);
-
-        BlockPos best = null;
-        int bestScore = Integer.MAX_VALUE;
-
-        for (int yy = startY; yy >= yMin; yy--) {
-            final BlockPos feet = new BlockPos(xz.getX(), yy, xz.getZ());
-            if (!isValidFeetPosition(level, feet, bypassUnsafe)) continue;
-
-            if (!bypassUnsafe) {
-                if (RtpConfig.SURFACE_ONLY_IN_SKYLIGHT_DIMS.get() && level.dimensionType().hasSkyLight()) {
-                    if (!level.canSeeSky(feet)) continue;
-                }
-                if (level.dimensionType().hasCeiling()) {
-                    int maxClear = RtpConfig.MAX_CEILING_CLEARANCE.get();
-                    if (maxClear > 0) {
-                        int clearance = ceilingClearance(level, feet, maxClear + 1);
-                        if (clearance > maxClear) continue;
-                    }
-                }
-            }
+        if (safe == null) RtpRejections.record(level, rejections.furthest(), xz.getX(), xz.getZ());
+        return safe;
+    }
+
+    /**
+     * Chunk-centric evaluation: the chunk load is the expensive part, so use all of it.
+     * Ranks the chunk's columns with its heightmap (surface closest to targetY first, water / leaves surfaces last),
+     * validates the best search.columnsPerChunk of them and returns a uniformly random safe one.
+     * If none is safe, the rest of the chunk is checked before giving up on it (W20).
+     */
+    static BlockPos resolveBestSafeSpotInChunk(ServerLevel level, LevelChunk chunk, BlockPos xz, Area area, int targetY, boolean bypassUnsafe,
+                                               RandomSource rng, RtpRejections.Tracker rejections) {
+        final int columns = RtpSettings.get().columnsPerChunk();
+        final ChunkScan scan = new ChunkScan(level, chunk, xz, area, targetY, bypassUnsafe, rng, columns, rejections);
+        final BlockPos[] safe = new BlockPos[columns];
+        final int found = scan.validate(columns, safe);
+        return (found == 0) ? scan.sweepRest() : safe[rng.nextInt(found)];
+    }
 
-            final int score = Math.abs(yy - targetY);
-            if (score < bestScore) {
-                bestScore = score;
-                best = feet;
-                if (bestScore == 0) break;
+    /** Surface flags ranked after every other column (validated only if the chunk has nothing better). */
+    private static final int UNLIKELY_SURFACE = RtpBlockSafetyTable.LIQUID | RtpBlockSafetyTable.LEAVES;
+
+    /**
+     * Ranked columns of one loaded chunk ({@link RtpRankedColumns}), validated best first. W32: a batch job validates
+     * a big harvest in slices ({@link #validate}) so a single step stays small.
+     * The chunk goes to the unsafe chunk cache (W20) only once every in-area column was validated without result.
+     */
+    static final class ChunkScan {
+        private final ServerLevel level;
+        private final LevelChunk chunk;
+        private final boolean bypassUnsafe;
+        private final RtpRejections.Tracker rejections;
+        private final RtpRankedColumns columns;
+        private final RtpRankedColumns.Validator<BlockPos> validator;
+        private boolean marked = false;
+
+        ChunkScan(ServerLevel level, LevelChunk chunk, BlockPos xz, Area area, int targetY, boolean bypassUnsafe, RandomSource rng,
+                  int maxColumns, RtpRejections.Tracker rejections) {
+            this.level = level;
+            this.chunk = chunk;
+            this.bypassUnsafe = bypassUnsafe;
+            this.rejections = rejections;
+
+            final ChunkPos cp = chunk.getPos();
+            final int minX = cp.getMinBlockX();
+            final int minZ = cp.getMinBlockZ();
+            final int sampledIndex = ((xz.getZ() & 15) << 4) | (xz.getX() & 15);
+            final BlockPos.MutableBlockPos surface = new BlockPos.MutableBlockPos();
+
+            final int[] ranked = new int[256];
+            int n = 0;
+            for (int i = 0; i < 256; i++) {
+                final int lx = i & 15;
+                final int lz = i >> 4;
+                if (i != sampledIndex && !area.contains(minX + lx, minZ + lz)) continue;
+
+                final int surfaceY = RtpColumnScanner.surfaceY(chunk, lx, lz);
+                // The heightmap counts water and leaves: such surfaces sit at sea level (the usual targetY) but rarely pass
+                final int surfaceFlags = RtpBlockSafetyTable.flags(chunk.getBlockState(surface.set(minX + lx, surfaceY - 1, minZ + lz)));
+                final int penalty = ((surfaceFlags & UNLIKELY_SURFACE) != 0) ? 0x4000 : 0;
+                final int score = Math.min(Math.abs(surfaceY - targetY), 0x3FFF) | penalty;
+                ranked[n++] = RtpRankedColumns.pack(score, rng.nextInt(256), i);
             }
+
+            this.columns = new RtpRankedColumns(ranked, n, maxColumns);
+            this.validator = i -> RtpColumnScanner.findBest(level, chunk, minX + (i & 15), minZ + (i >> 4), targetY, bypassUnsafe, rejections);
         }
 
-        return best;
-    }
+        /**
+         * Validates up to maxColumns more ranked columns (and at most out.length); safe spots go to out from index 0, returns how many.
+         */
+        int validate(int maxColumns, BlockPos[] out) {
+            final int n = columns.validate(maxColumns, out, validator);
+            markIfUnsafe();
+            return n;
+        }
 
-    private static int ceilingClearance(ServerLevel level, BlockPos feet, int maxScan) {
-        for (int i = 1; i <= maxScan; i++) {
-            BlockPos p = feet.above(i);
-            if (p.getY() >= level.getMaxBuildHeight()) return maxScan;
-            BlockState s = level.getBlockState(p);
-            if (!s.getCollisionShape(level, p).isEmpty()) return i;
+        /**
+         * After the ranked columns found nothing: checks the other in-area columns, returns the first safe spot (or null).
+         * The chunk is loaded already and empty sections are skipped, so this stays cheap.
+         */
+        BlockPos sweepRest() {
+            final BlockPos spot = columns.sweepRest(validator);
+            markIfUnsafe();
+            return spot;
+        }
+
+        private void markIfUnsafe() {
+            if (marked || bypassUnsafe || !columns.allRejected()) return;
+            marked = true;
+            RtpUnsafeChunkCache.markUnsafe(level, chunk.getPos());
+        }
+
+        boolean isComplete() {
+            return columns.isComplete();
         }
-        return maxScan;
-    }
 
-    private static boolean isValidFeetPosition(ServerLevel level, BlockPos feet, boolean bypassUnsafe) {
-        if (!isAirLike(level, feet)) return false;
-        if (!isAirLike(level, feet.above())) return false;
+        int found() {
+            return columns.found();
+        }
+
+        LevelChunk chunk() {
+            return chunk;
+        }
+
+        RtpRejections.Tracker rejections() {
+            return rejections;
+        }
+    }
 
+    static boolean isValidFeetPosition(ServerLevel level, BlockPos feet, boolean bypassUnsafe) {
+        final BlockPos headPos = feet.above();
         final BlockPos groundPos = feet.below();
+
+        final BlockState feetState = level.getBlockState(feet);
+        final BlockState headState = level.getBlockState(headPos);
         final BlockState groundState = level.getBlockState(groundPos);
 
+        final int feetFlags = RtpBlockSafetyTable.flags(feetState);
+        final int headFlags = RtpBlockSafetyTable.flags(headState);
+        final int groundFlags = RtpBlockSafetyTable.flags(groundState);
+
+        if (!RtpBlockSafetyTable.isAirLike(level, feet, feetState, feetFlags)) return false;
+        if (!RtpBlockSafetyTable.isAirLike(level, headPos, headState, headFlags)) return false;
+
+        final RtpSettings settings = RtpSettings.get();
+
         // Even in bypassUnsafe we still want something sensible; we only relax optional checks.
-        if (!bypassUnsafe && RtpConfig.REQUIRE_SOLID_GROUND.get()) {
-            if (!groundState.isFaceSturdy(level, groundPos, Direction.UP)) return false;
+        if (!bypassUnsafe && settings.requireSolidGround()) {
+            if (!RtpBlockSafetyTable.isSturdyTop(level, groundPos, groundState, groundFlags)) return false;
         }
 
         if (!bypassUnsafe) {
-            if (groundState.is(BlockTags.LEAVES)) return false;
-            if (DANGEROUS_GROUND.contains(groundState.getBlock())) return false;
-            if (groundState.getBlock() instanceof CampfireBlock) return false;
+            if (hazardousGround(groundFlags) != null) return false;
 
-            if (RtpConfig.AVOID_LIQUIDS.get()) {
-                if (isLiquidAt(level, feet) || isLiquidAt(level, feet.above()) || isLiquidAt(level, groundPos)) return false;
+            if (settings.avoidLiquids()) {
+                if (((feetFlags | headFlags | groundFlags) & RtpBlockSafetyTable.LIQUID) != 0) return false;
             }
         }
 
         return true;
     }
 
-    private static boolean isAirLike(ServerLevel level, BlockPos pos) {
-        final BlockState state = level.getBlockState(pos);
-        return state.getCollisionShape(level, pos).isEmpty();
-    }
-
-    private static boolean isLiquidAt(ServerLevel level, BlockPos pos) {
-        final FluidState fluid = level.getFluidState(pos);
-        return !fluid.isEmpty();
+    /**
+     * Leaves, built-in hazards and safety.dangerousGroundTag (flags from {@link RtpBlockSafetyTable}); null if none.
+     */
+    static RtpRejections.Reason hazardousGround(int groundFlags) {
+        if ((groundFlags & RtpBlockSafetyTable.LEAVES) != 0) return RtpRejections.Reason.LEAVES;
+        if ((groundFlags & RtpBlockSafetyTable.DANGEROUS) != 0) return RtpRejections.Reason.DANGEROUS_GROUND;
+        return null;
     }
 
+    /**
+     * Never loads chunks itself: callers preload the arrival area (W33), teleportTo adds its own ticket otherwise.
+     */
     public static void teleportPlayer(ServerPlayer player, ServerLevel level, BlockPos feet) {
-        final ChunkPos cp = new ChunkPos(feet);
-        level.getChunk(cp.x, cp.z);
-
-        final boolean keepRot = RtpConfig.KEEP_YAW_PITCH.get();
+        final boolean keepRot = RtpSettings.get().keepYawPitch();
         final float yaw = keepRot ? player.getYRot() : 0.0f;
         final float pitch = keepRot ? player.getXRot() : 0.0f;
 
@@ -232,6 +342,20 @@ public final class RtpSafeTeleport {
         final double tz = feet.getZ() + 0.5;
 
         RtpLogger.debug(TryckysRTP.LOGGER, "Teleporting {} to {} in {}", player.getGameProfile().getName(), feet, level.dimension().location());
+
+        // W33 — keep the arrival area loaded for a while after the teleport (refreshes a preload ticket)
+        RtpChunkTickets.holdArrival(level, feet);
+
+        final RtpJfrEvents.Teleport event = new RtpJfrEvents.Teleport();
+        event.begin();
         player.teleportTo(level, tx, ty, tz, Set.of(), yaw, pitch);
+        if (event.shouldCommit()) {
+            event.dimension = level.dimension().location().toString();
+            event.player = player.getGameProfile().getName();
+            event.x = feet.getX();
+            event.y = feet.getY();
+            event.z = feet.getZ();
+            event.commit();
+        }
     }
 }
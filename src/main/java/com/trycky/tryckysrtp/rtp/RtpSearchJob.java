@@ -0,0 +1,416 @@
+package com.trycky.tryckysrtp.rtp;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+import java.util.UUID;
+
+/**
+ * Multi-tick safe-spot search.
+ *
+ * SAMPLE -> [REQUEST_CHUNK -> AWAIT_CHUNK] -> EVALUATE -> (SAMPLE again | [PRELOAD] -> TELEPORT) -> DONE
+ *
+ * A job can also start from a pooled destination ({@link #startFromPooled}): the chunk is awaited the same way,
+ * then only a cheap feet-position re-check is done. If it fails, the job falls back to the live search.
+ *
+ * Each attempt only evaluates a chunk once it is already loaded, so no tick ever waits on worldgen.
+ * A chunk found loaded without a ticket of ours can unload before EVALUATE runs (deadline yield, pooled start):
+ * EVALUATE then requests it like any other candidate instead of loading it synchronously.
+ * The result is handed to the {@link Listener} in the TELEPORT state.
+ *
+ * W16: steps run until the scheduler's tick deadline, and a chunk is only requested once
+ * the scheduler grants a chunk-load slot (REQUEST_CHUNK waits otherwise).
+ *
+ * W28: start, outcome, attempts and chunk requests are reported to {@link RtpMetrics} once per job.
+ * W29: the job and each requested chunk are also JFR events ({@link RtpJfrEvents}).
+ * W32: with a {@link Harvester} (batch RTP), every evaluated chunk hands all its safe spots over
+ * and the job keeps sampling until the harvester is done or attempts run out. A chunk's columns are validated
+ * HARVEST_COLUMNS_PER_STEP at a time, so the scheduler's deadline is checked in between.
+ * W33: the search ticket of a rejected chunk is released right away; player searches preload the arrival
+ * area (PRELOAD) before handing the result over.
+ */
+public final class RtpSearchJob {
+
+    public interface Listener {
+        void onFinished(ServerLevel level, RtpSafeTeleport.Result result);
+    }
+
+    /**
+     * Collects several safe spots per evaluated chunk instead of finishing on the first one.
+     * Shared by the jobs of one batch; only called from the server thread.
+     */
+    interface Harvester {
+        /** Columns to validate per chunk. */
+        int columnsPerChunk();
+
+        /** Next candidate X/Z, or null for a regular random sample. */
+        BlockPos nextCandidate(RandomSource rng);
+
+        /** Once per non-null {@link #nextCandidate}, when the job is done with it (evaluated, rejected, timed out or cancelled). */
+        void candidateFinished();
+
+        void offer(BlockPos[] spots, int count);
+
+        boolean isDone();
+    }
+
+    enum State { SAMPLE, REQUEST_CHUNK, AWAIT_CHUNK, EVALUATE, PRELOAD, TELEPORT, DONE }
+
+    /** Give up on a candidate chunk after this many ticks (the attempt counts as failed). */
+    private static final int CHUNK_WAIT_TIMEOUT_TICKS = RtpChunkTickets.SEARCH_TICKET_LIFESPAN_TICKS;
+
+    /** Harvest: columns validated per step (a batch may ask for the whole chunk). */
+    private static final int HARVEST_COLUMNS_PER_STEP = 16;
+
+    private final ServerLevel level;
+    private final UUID ownerId;
+    private final boolean bypassUnsafe;
+    private final int targetY;
+    private final Listener listener;
+
+    private final RtpSafeTeleport.Area area;
+    private final RandomSource rng;
+
+    private State state = State.SAMPLE;
+    private int attempts = 0;
+    private BlockPos candidate;
+    private ChunkPos candidateChunk;
+    private int waitedTicks = 0;
+    private RtpSafeTeleport.Result result;
+    private BlockPos pooled;
+    private boolean holdsChunkSlot = false;
+    /** Chunk this job holds a SEARCH ticket on, or null. */
+    private ChunkPos ticketChunk;
+    private Harvester harvester;
+    private int attemptsMax;
+    /** Current candidate came from {@link Harvester#nextCandidate}. */
+    private boolean steered = false;
+    /** Harvest of the current chunk, in progress across steps. */
+    private RtpSafeTeleport.ChunkScan harvestScan;
+
+    private final long startNanos = System.nanoTime();
+    private int chunkRequests = 0;
+    private int chunksGenerated = 0;
+    private boolean startedFromPool = false;
+    private final RtpJfrEvents.Search searchEvent = new RtpJfrEvents.Search();
+    private RtpJfrEvents.ChunkAcquire chunkEvent;
+
+    /**
+     * @param ownerId player owning this search, or null for background searches
+     * @param targetY preferred Y (best candidate in a column is the closest to it)
+     */
+    public RtpSearchJob(ServerLevel level, UUID ownerId, int targetY, boolean bypassUnsafe, Listener listener) {
+        this.level = level;
+        this.ownerId = ownerId;
+        this.bypassUnsafe = bypassUnsafe;
+        this.targetY = RtpSafeTeleport.targetY(level, targetY);
+        this.listener = listener;
+
+        this.area = RtpSafeTeleport.Area.of(level);
+        this.rng = level.getRandom();
+        this.attemptsMax = area.attemptsMax;
+
+        RtpMetrics.searchesStarted.increment();
+        searchEvent.begin();
+    }
+
+    public UUID ownerId() {
+        return ownerId;
+    }
+
+    public ServerLevel level() {
+        return level;
+    }
+
+    public int attempts() {
+        return attempts;
+    }
+
+    public int chunkRequests() {
+        return chunkRequests;
+    }
+
+    /** Requested chunks that ChunkEvent.Load reported as newly generated. */
+    public int chunksGenerated() {
+        return chunksGenerated;
+    }
+
+    /**
+     * Use a pre-validated destination first (does not count as an attempt).
+     */
+    public RtpSearchJob startFromPooled(BlockPos pos) {
+        if (pos == null || state != State.SAMPLE || attempts > 0) return this;
+
+        RtpMetrics.pooledHits.increment();
+        startedFromPool = true;
+        pooled = pos;
+        candidate = pos;
+        candidateChunk = new ChunkPos(pos);
+        state = (RtpChunkTickets.getIfLoaded(level, candidateChunk) != null) ? State.EVALUATE : State.REQUEST_CHUNK;
+        return this;
+    }
+
+    /**
+     * Batch mode: spots go to the harvester; the listener's result has no position.
+     */
+    RtpSearchJob harvestInto(Harvester harvester, int attemptsMax) {
+        this.harvester = harvester;
+        this.attemptsMax = Math.max(1, attemptsMax);
+        return this;
+    }
+
+    public boolean isBackground() {
+        return ownerId == null;
+    }
+
+    public boolean isDone() {
+        return state == State.DONE;
+    }
+
+    /**
+     * Advances the state machine until it has to wait or the deadline is reached
+     * (at least one step is always done). Returns true once the job is DONE.
+     */
+    boolean tick(long deadlineNanos) {
+        while (state != State.DONE) {
+            switch (state) {
+                case SAMPLE -> sample();
+                case REQUEST_CHUNK -> {
+                    if (!RtpSearchScheduler.tryAcquireChunkLoad(isBackground())) return false; // wait for a free slot
+                    holdsChunkSlot = true;
+                    chunkEvent = new RtpJfrEvents.ChunkAcquire();
+                    chunkEvent.begin();
+                    RtpChunkTickets.request(level, candidateChunk);
+                    ticketChunk = candidateChunk;
+                    RtpMetrics.recordChunkRequest(level, candidateChunk);
+                    chunkRequests++;
+                    waitedTicks = 0;
+                    state = State.AWAIT_CHUNK;
+                    return false; // the chunk cannot be ready in this tick
+                }
+                case AWAIT_CHUNK -> {
+                    if (RtpChunkTickets.getIfLoaded(level, candidateChunk) == null) {
+                        if (++waitedTicks > CHUNK_WAIT_TIMEOUT_TICKS) {
+                            RtpMetrics.chunkTimeouts.increment();
+                            RtpRejections.record(level, RtpRejections.Reason.CHUNK_TIMEOUT, candidate.getX(), candidate.getZ());
+                            chunkAcquired(true);
+                            releaseChunkSlot();
+                            releaseChunkTicket();
+                            pooled = null;
+                            finishSteered();
+                            state = State.SAMPLE;
+                        }
+                        return false; // yield: chunk is loading off-thread
+                    }
+                    chunkAcquired(false);
+                    releaseChunkSlot();
+                    state = State.EVALUATE;
+                }
+                case EVALUATE -> evaluate();
+                case PRELOAD -> {
+                    if (!RtpChunkTickets.isArrivalLoaded(level, result.pos) && ++waitedTicks <= RtpChunkTickets.ARRIVAL_PRELOAD_MAX_TICKS) {
+                        return false; // yield: arrival chunks are loading off-thread
+                    }
+                    state = State.TELEPORT;
+                }
+                case TELEPORT -> {
+                    state = State.DONE;
+                    recordOutcome(result.success ? "ok" : "failed");
+                    listener.onFinished(level, result);
+                }
+                default -> { }
+            }
+
+            if (System.nanoTime() >= deadlineNanos) break;
+        }
+        return state == State.DONE;
+    }
+
+    /**
+     * Stops the job without calling the listener (owner left, server stopping...).
+     */
+    void cancel() {
+        if (state != State.DONE) {
+            RtpMetrics.searchesCancelled.increment();
+            commitSearchEvent("cancelled");
+        }
+        if (chunkEvent != null) chunkAcquired(true);
+        releaseChunkSlot();
+        releaseChunkTicket();
+        finishSteered();
+        state = State.DONE;
+    }
+
+    /**
+     * Ends the job with a failure result (the listener is still notified).
+     */
+    void abort(String message) {
+        if (state == State.DONE) return;
+        if (chunkEvent != null) chunkAcquired(true);
+        releaseChunkSlot();
+        releaseChunkTicket();
+        finishSteered();
+        state = State.DONE;
+        recordOutcome("failed");
+        listener.onFinished(level, RtpSafeTeleport.Result.fail(message));
+    }
+
+    private void sample() {
+        if (harvester != null && harvester.isDone()) {
+            result = RtpSafeTeleport.Result.ok(null);
+            state = State.TELEPORT;
+            return;
+        }
+        if (attempts >= attemptsMax) {
+            result = RtpSafeTeleport.Result.fail(RtpSafeTeleport.NO_SAFE_SPOT_MESSAGE);
+            state = State.TELEPORT;
+            return;
+        }
+
+        attempts++;
+        final BlockPos next = (harvester != null) ? harvester.nextCandidate(rng) : null;
+        steered = (next != null);
+        candidate = steered ? next : RtpSafeTeleport.sampleCandidate(level, rng, area);
+        // W18/W20 — denied biome or known unsafe chunk: the attempt is spent, but no chunk is loaded or generated
+        if (RtpSafeTeleport.rejectBeforeLoad(level, candidate, bypassUnsafe)) {
+            finishSteered();
+            return;
+        }
+
+        candidateChunk = new ChunkPos(candidate);
+
+        state = (RtpChunkTickets.getIfLoaded(level, candidateChunk) != null) ? State.EVALUATE : State.REQUEST_CHUNK;
+    }
+
+    private void recordOutcome(String outcome) {
+        RtpMetrics.recordSearch(level, isBackground(), "ok".equals(outcome), attempts, chunkRequests, System.nanoTime() - startNanos);
+        commitSearchEvent(outcome);
+    }
+
+    private void commitSearchEvent(String outcome) {
+        if (!searchEvent.shouldCommit()) return;
+        searchEvent.dimension = level.dimension().location().toString();
+        searchEvent.player = (ownerId == null) ? "" : ownerId.toString();
+        searchEvent.attempts = attempts;
+        searchEvent.chunkRequests = chunkRequests;
+        searchEvent.pooled = startedFromPool;
+        searchEvent.result = outcome;
+        searchEvent.commit();
+    }
+
+    private void chunkAcquired(boolean timedOut) {
+        final String origin = RtpMetrics.takeChunkOrigin(level, candidateChunk);
+        if (RtpJfrEvents.ORIGIN_GENERATED.equals(origin)) chunksGenerated++;
+        final RtpJfrEvents.ChunkAcquire event = chunkEvent;
+        chunkEvent = null;
+        if (event == null || !event.shouldCommit()) return;
+
+        event.dimension = level.dimension().location().toString();
+        event.chunkX = candidateChunk.x;
+        event.chunkZ = candidateChunk.z;
+        event.origin = origin;
+        event.timedOut = timedOut;
+        event.commit();
+    }
+
+    private void releaseChunkTicket() {
+        if (ticketChunk == null) return;
+        RtpChunkTickets.release(level, ticketChunk);
+        ticketChunk = null;
+    }
+
+    /**
+     * Safe spot found. Player searches preload the arrival area first; background ones (pool) drop the chunk,
+     * it is requested again when the spot is used.
+     */
+    private void succeed(BlockPos pos) {
+        result = RtpSafeTeleport.Result.ok(pos);
+        if (isBackground()) {
+            releaseChunkTicket();
+            state = State.TELEPORT;
+            return;
+        }
+
+        RtpChunkTickets.holdArrival(level, pos);
+        releaseChunkTicket(); // covered by the arrival ticket
+        waitedTicks = 0;
+        state = State.PRELOAD;
+    }
+
+    private void finishSteered() {
+        if (!steered) return;
+        steered = false;
+        harvester.candidateFinished();
+    }
+
+    private void releaseChunkSlot() {
+        if (!holdsChunkSlot) return;
+        holdsChunkSlot = false;
+        RtpSearchScheduler.releaseChunkLoad();
+    }
+
+    private void evaluate() {
+        final LevelChunk chunk = RtpChunkTickets.getIfLoaded(level, candidateChunk);
+        if (chunk == null) {
+            harvestScan = null;
+            state = State.REQUEST_CHUNK; // unloaded since it was seen (no ticket held)
+            return;
+        }
+
+        if (pooled != null) {
+            final BlockPos pos = pooled;
+            pooled = null;
+            if (RtpSafeTeleport.isValidFeetPosition(level, pos, bypassUnsafe)) {
+                succeed(pos);
+            } else {
+                RtpRejections.record(level, RtpRejections.Reason.POOLED_STALE, pos.getX(), pos.getZ());
+                releaseChunkTicket();
+                state = State.SAMPLE;
+            }
+            return;
+        }
+
+        if (harvester != null) {
+            harvest(chunk);
+            return;
+        }
+
+        final BlockPos safe = RtpSafeTeleport.resolveCandidate(level, chunk, candidate, area, targetY, bypassUnsafe, rng);
+        if (safe != null) {
+            succeed(safe);
+        } else {
+            releaseChunkTicket();
+            state = State.SAMPLE;
+        }
+    }
+
+    /**
+     * One slice of the current chunk's harvest; stays in EVALUATE until every column to check is done.
+     */
+    private void harvest(LevelChunk chunk) {
+        if (harvestScan == null || harvestScan.chunk() != chunk) {
+            harvestScan = new RtpSafeTeleport.ChunkScan(level, chunk, candidate, area, targetY, bypassUnsafe, rng,
+                    harvester.columnsPerChunk(), new RtpRejections.Tracker());
+        }
+
+        final BlockPos[] spots = new BlockPos[HARVEST_COLUMNS_PER_STEP];
+        final int found = harvestScan.validate(HARVEST_COLUMNS_PER_STEP, spots);
+        if (found > 0) harvester.offer(spots, found);
+        if (!harvestScan.isComplete() && !harvester.isDone()) return; // next slice in the next step
+
+        if (harvestScan.found() > 0) {
+            ticketChunk = null; // kept until it expires: the batch teleports there soon
+        } else {
+            if (harvestScan.isComplete()) {
+                RtpRejections.record(level, harvestScan.rejections().furthest(), candidate.getX(), candidate.getZ());
+            }
+            releaseChunkTicket();
+        }
+        harvestScan = null;
+        finishSteered();
+        state = State.SAMPLE;
+    }
+}
@@ -0,0 +1,143 @@
+package com.trycky.tryckysrtp.rtp;
+
+import com.trycky.tryckysrtp.RtpLogger;
+import com.trycky.tryckysrtp.RtpSettings;
+import com.trycky.tryckysrtp.TryckysRTP;
+import net.minecraft.server.MinecraftServer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Drives {@link RtpSearchJob}s from the server tick.
+ * At most one running search per player.
+ *
+ * W16 — Time-budgeted, fair scheduling:
+ * - Player searches are served FIFO (oldest request first), background searches (pool refill) after them.
+ * - Search work stops once scheduler.tickBudgetMillis is spent in the current tick.
+ * - At most scheduler.maxConcurrentChunkLoads chunk requests in flight (background: half of it).
+ */
+public final class RtpSearchScheduler {
+    private RtpSearchScheduler() {}
+
+    private static final List<RtpSearchJob> playerQueue = new ArrayList<>();
+    private static final List<RtpSearchJob> backgroundQueue = new ArrayList<>();
+    /** Jobs submitted while ticking (e.g. from a listener) start on the next tick. */
+    private static final List<RtpSearchJob> submitted = new ArrayList<>();
+    private static final Map<UUID, RtpSearchJob> jobsByOwner = new HashMap<>();
+
+    private static int chunkLoadsInFlight = 0;
+
+    /**
+     * Returns false if the owner already has a running search.
+     */
+    public static boolean submit(RtpSearchJob job) {
+        final UUID owner = job.ownerId();
+        if (owner != null) {
+            if (jobsByOwner.containsKey(owner)) return false;
+            jobsByOwner.put(owner, job);
+        }
+        submitted.add(job);
+        return true;
+    }
+
+    public static boolean isSearching(UUID owner) {
+        return owner != null && jobsByOwner.containsKey(owner);
+    }
+
+    /**
+     * 1-based position of the owner's search among pending player searches, or 0 if none.
+     */
+    public static int queuePosition(UUID owner) {
+        final RtpSearchJob job = (owner != null) ? jobsByOwner.get(owner) : null;
+        if (job == null) return 0;
+
+        int position = 0;
+        for (RtpSearchJob j : playerQueue) {
+            if (j.isDone()) continue;
+            position++;
+            if (j == job) return position;
+        }
+        for (RtpSearchJob j : submitted) {
+            if (j.isDone() || j.isBackground()) continue;
+            position++;
+            if (j == job) return position;
+        }
+        return 0;
+    }
+
+    public static void cancel(UUID owner) {
+        if (owner == null) return;
+        final RtpSearchJob job = jobsByOwner.remove(owner);
+        if (job != null) job.cancel();
+    }
+
+    public static void onServerTick(MinecraftServer server) {
+        if (!submitted.isEmpty()) {
+            for (RtpSearchJob job : submitted) {
+                (job.isBackground() ? backgroundQueue : playerQueue).add(job);
+            }
+            submitted.clear();
+        }
+        if (playerQueue.isEmpty() && backgroundQueue.isEmpty()) return;
+
+        final long deadline = System.nanoTime() + RtpSettings.get().tickBudgetNanos();
+
+        runQueue(playerQueue, deadline);
+        runQueue(backgroundQueue, deadline);
+    }
+
+    private static void runQueue(List<RtpSearchJob> queue, long deadline) {
+        final Iterator<RtpSearchJob> it = queue.iterator();
+        while (it.hasNext()) {
+            final RtpSearchJob job = it.next();
+
+            if (!job.isDone() && System.nanoTime() >= deadline) return; // budget spent: resume next tick
+
+            boolean done;
+            try {
+                done = job.isDone() || job.tick(deadline);
+            } catch (Exception ex) {
+                RtpLogger.error(TryckysRTP.LOGGER, "RTP search job failed in {}", job.level().dimension().location(), ex);
+                try {
+                    job.abort("RTP search failed. Check server logs.");
+                } catch (Exception ignored) {
+                    job.cancel();
+                }
+                done = true;
+            }
+
+            if (done) {
+                it.remove();
+                if (job.ownerId() != null) jobsByOwner.remove(job.ownerId(), job);
+            }
+        }
+    }
+
+    static boolean tryAcquireChunkLoad(boolean background) {
+        final int max = RtpSettings.get().maxConcurrentChunkLoads();
+        final int limit = background ? Math.max(1, max / 2) : max;
+        if (chunkLoadsInFlight >= limit) return false;
+        chunkLoadsInFlight++;
+        return true;
+    }
+
+    static void releaseChunkLoad() {
+        if (chunkLoadsInFlight > 0) chunkLoadsInFlight--;
+    }
+
+    public static void clearAll() {
+        for (RtpSearchJob job : playerQueue) job.cancel();
+        for (RtpSearchJob job : backgroundQueue) job.cancel();
+        for (RtpSearchJob job : submitted) job.cancel();
+        playerQueue.clear();
+        backgroundQueue.clear();
+        submitted.clear();
+        jobsByOwner.clear();
+        chunkLoadsInFlight = 0;
+    }
+}
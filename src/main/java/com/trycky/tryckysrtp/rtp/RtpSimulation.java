@@ -0,0 +1,146 @@
+package com.trycky.tryckysrtp.rtp;
+
+import com.trycky.tryckysrtp.RtpLogger;
+import com.trycky.tryckysrtp.TryckysRTP;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * W31 — Dry-run load test: /rtp simulate submits N searches at once and nobody is teleported.
+ *
+ * - Jobs are background {@link RtpSearchJob}s (same tick budget and rejections as /rtp): they queue behind real
+ *   player searches, use at most half the chunk-load slots and skip the arrival preload, so a load test never
+ *   delays or loads chunks for real players. They do not take destinations from the pool.
+ * - Latency is measured from submit to result (queueing included), percentiles are exact (N is small).
+ * - MSPT uses the server's 100-tick average: before the run, then averaged / peak over the run's ticks.
+ * - One simulation at a time; its jobs are cancelled on server stop. Results also count in /rtp metrics.
+ */
+public final class RtpSimulation {
+    private RtpSimulation() {}
+
+    public static final int MAX_COUNT = 1000;
+
+    private static Run running;
+
+    /**
+     * Starts a simulation in the given level. Returns false if one is already running.
+     */
+    public static boolean start(MinecraftServer server, ServerLevel level, int count, Consumer<List<String>> onDone) {
+        if (running != null) return false;
+
+        final Run run = new Run(level, count, onDone, server.getAverageTickTimeNanos());
+        running = run;
+        for (int i = 0; i < count; i++) {
+            final long submittedNanos = System.nanoTime();
+            final RtpSearchJob[] job = new RtpSearchJob[1];
+            job[0] = new RtpSearchJob(level, null, level.getSeaLevel(), false,
+                    (searchLevel, result) -> run.onFinished(job[0], result.success, System.nanoTime() - submittedNanos));
+            run.jobs.add(job[0]);
+            RtpSearchScheduler.submit(job[0]);
+        }
+        return true;
+    }
+
+    public static boolean isRunning() {
+        return running != null;
+    }
+
+    public static void onServerTick(MinecraftServer server) {
+        final Run run = running;
+        if (run == null) return;
+
+        final long mspt = server.getAverageTickTimeNanos();
+        run.msptSum += mspt;
+        run.msptPeak = Math.max(run.msptPeak, mspt);
+        run.ticks++;
+    }
+
+    public static void clearAll() {
+        final Run run = running;
+        running = null;
+        if (run != null) {
+            for (RtpSearchJob job : run.jobs) job.cancel();
+        }
+    }
+
+    private static final class Run {
+        final ServerLevel level;
+        final int count;
+        final Consumer<List<String>> onDone;
+        final long msptBefore;
+        final long startNanos = System.nanoTime();
+        final List<RtpSearchJob> jobs = new ArrayList<>();
+
+        final long[] latencyNanos;
+        final int[] attemptsPerSuccess;
+        int finished = 0;
+        int succeeded = 0;
+        long chunkRequests = 0;
+        long chunksGenerated = 0;
+
+        long msptSum = 0;
+        long msptPeak = 0;
+        int ticks = 0;
+
+        Run(ServerLevel level, int count, Consumer<List<String>> onDone, long msptBefore) {
+            this.level = level;
+            this.count = count;
+            this.onDone = onDone;
+            this.msptBefore = msptBefore;
+            this.latencyNanos = new long[count];
+            this.attemptsPerSuccess = new int[count];
+        }
+
+        void onFinished(RtpSearchJob job, boolean success, long nanos) {
+            if (running != this) return; // cleared (server stopping)
+
+            latencyNanos[finished++] = nanos;
+            if (success) attemptsPerSuccess[succeeded++] = job.attempts();
+            chunkRequests += job.chunkRequests();
+            chunksGenerated += job.chunksGenerated();
+
+            if (finished < count) return;
+            running = null;
+
+            final List<String> report = report();
+            for (String line : report) RtpLogger.info(TryckysRTP.LOGGER, "RTP simulate: {}", line);
+            onDone.accept(report);
+        }
+
+        private List<String> report() {
+            final List<String> lines = new ArrayList<>();
+            Arrays.sort(latencyNanos);
+            Arrays.sort(attemptsPerSuccess, 0, succeeded);
+
+            lines.add(String.format(Locale.ROOT, "%d searches in %s: %d ok, %d failed (%.1fs)",
+                    count, level.dimension().location(), succeeded, count - succeeded, (System.nanoTime() - startNanos) / 1e9));
+            lines.add(String.format(Locale.ROOT, "Latency (ms): p50 %.1f, p95 %.1f, p99 %.1f, max %.1f",
+                    percentile(latencyNanos, count, 0.50) / 1e6, percentile(latencyNanos, count, 0.95) / 1e6,
+                    percentile(latencyNanos, count, 0.99) / 1e6, latencyNanos[count - 1] / 1e6));
+
+            double attemptsMean = 0.0;
+            for (int i = 0; i < succeeded; i++) attemptsMean += attemptsPerSuccess[i];
+            if (succeeded > 0) attemptsMean /= succeeded;
+            lines.add(String.format(Locale.ROOT, "Attempts per success: mean %.2f, p95 %d | chunks: %d requested, %d generated",
+                    attemptsMean, (succeeded == 0) ? 0 : attemptsPerSuccess[percentileIndex(succeeded, 0.95)], chunkRequests, chunksGenerated));
+            lines.add(String.format(Locale.ROOT, "MSPT (100-tick avg): before %.2f, during %.2f, peak %.2f",
+                    msptBefore / 1e6, (ticks == 0) ? 0.0 : msptSum / (double) ticks / 1e6, msptPeak / 1e6));
+            return lines;
+        }
+
+        private static long percentile(long[] sorted, int n, double q) {
+            return sorted[percentileIndex(n, q)];
+        }
+
+        /** Nearest-rank index. */
+        private static int percentileIndex(int n, double q) {
+            return Math.max(0, Math.min(n - 1, (int) Math.ceil(q * n) - 1));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.trycky.tryckysrtp.rtp;
+
+import com.trycky.tryckysrtp.RtpConfig;
+import com.trycky.tryckysrtp.RtpSettings;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * W20 — Negative cache: chunks where no safe spot was found are skipped before being loaded again.
+ *
+ * Strategy:
+ * - Only chunk-mode searches record, and only once every column of the chunk inside the RTP area was validated
+ *   without result; bypassUnsafe searches neither record nor skip.
+ * - Per dimension, capped at search.unsafeChunkCacheSize (least recently hit evicted), entries expire after unsafeChunkTtlMinutes.
+ * - With search.unsafeChunkCachePersist, stored as SavedData of the dimension (survives restarts).
+ * - Content is tied to the safety settings and the RTP area (radii, spawn) it was recorded with (fingerprint):
+ *   changing them resets it.
+ */
+public final class RtpUnsafeChunkCache {
+    private RtpUnsafeChunkCache() {}
+
+    private static final Map<ResourceKey<Level>, RtpUnsafeChunkData> byDimension = new HashMap<>();
+    private static Integer fingerprint = null;
+
+    public static boolean isKnownUnsafe(ServerLevel level, int chunkX, int chunkZ) {
+        final RtpSettings settings = RtpSettings.get();
+        if (settings.unsafeChunkCacheSize() <= 0) return false;
+        return data(level).contains(ChunkPos.asLong(chunkX, chunkZ), System.currentTimeMillis(), settings.unsafeChunkTtlMillis());
+    }
+
+    public static void markUnsafe(ServerLevel level, ChunkPos pos) {
+        final int max = RtpSettings.get().unsafeChunkCacheSize();
+        if (max <= 0) return;
+        data(level).add(pos.toLong(), System.currentTimeMillis(), max);
+    }
+
+    public static int size(ServerLevel level) {
+        final RtpUnsafeChunkData data = byDimension.get(level.dimension());
+        return (data != null) ? data.size() : 0;
+    }
+
+    /**
+     * Config reload (safety rules may have changed) or server stop: data is re-checked against the fingerprint on next use.
+     */
+    public static void clearAll() {
+        fingerprint = null;
+        byDimension.clear();
+    }
+
+    private static RtpUnsafeChunkData data(ServerLevel level) {
+        return byDimension.computeIfAbsent(level.dimension(), k -> {
+            final RtpUnsafeChunkData data = RtpSettings.get().unsafeChunkCachePersist()
+                    ? level.getDataStorage().computeIfAbsent(RtpUnsafeChunkData.factory(), RtpUnsafeChunkData.DATA_NAME)
+                    : new RtpUnsafeChunkData();
+            data.checkConfig(Objects.hash(fingerprint(), level.getSharedSpawnPos()));
+            return data;
+        });
+    }
+
+    /**
+     * Everything that decides whether a chunk yields a safe spot (the spawn, centre of the area, is added per dimension).
+     */
+    private static int fingerprint() {
+        if (fingerprint == null) {
+            final RtpSettings s = RtpSettings.get();
+            fingerprint = Objects.hash(
+                    s.requireSolidGround(),
+                    s.avoidLiquids(),
+                    s.surfaceOnlyInSkylightDims(),
+                    s.maxCeilingClearance(),
+                    s.safeHeightmap().name(),
+                    s.surfaceFastPath(),
+                    s.radiusMin(),
+                    s.radiusMax(),
+                    s.minDistanceFromSpawn(),
+                    RtpConfig.DANGEROUS_GROUND_TAG.get()
+            );
+        }
+        return fingerprint;
+    }
+}
@@ -0,0 +1,93 @@
+package com.trycky.tryckysrtp.rtp;
+
+import com.trycky.tryckysrtp.TryckysRTP;
+import it.unimi.dsi.fastutil.longs.Long2LongLinkedOpenHashMap;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.level.saveddata.SavedData;
+
+/**
+ * W20 — Chunks of one dimension where a chunk-mode search found no safe spot.
+ *
+ * Packed ChunkPos -> epoch millis when recorded, in LRU order (oldest / least recently hit first).
+ * Stored as two parallel long arrays; configHash drops the content if safety settings changed since.
+ */
+public final class RtpUnsafeChunkData extends SavedData {
+
+    static final String DATA_NAME = TryckysRTP.MODID + "_unsafe_chunks";
+
+    private final Long2LongLinkedOpenHashMap recordedMillisByChunk = new Long2LongLinkedOpenHashMap();
+    private int configHash;
+
+    public RtpUnsafeChunkData() {}
+
+    static SavedData.Factory<RtpUnsafeChunkData> factory() {
+        return new SavedData.Factory<>(RtpUnsafeChunkData::new, RtpUnsafeChunkData::load);
+    }
+
+    /**
+     * Drops everything if the data was recorded under other safety settings.
+     */
+    void checkConfig(int hash) {
+        if (configHash == hash) return;
+        configHash = hash;
+        recordedMillisByChunk.clear();
+        setDirty();
+    }
+
+    boolean contains(long chunkKey, long nowMillis, long ttlMillis) {
+        if (!recordedMillisByChunk.containsKey(chunkKey)) return false;
+
+        final long recorded = recordedMillisByChunk.getAndMoveToLast(chunkKey);
+        if (ttlMillis > 0 && nowMillis - recorded > ttlMillis) {
+            recordedMillisByChunk.remove(chunkKey);
+            setDirty();
+            return false;
+        }
+        return true;
+    }
+
+    void add(long chunkKey, long nowMillis, int maxEntries) {
+        recordedMillisByChunk.putAndMoveToLast(chunkKey, nowMillis);
+        while (recordedMillisByChunk.size() > maxEntries) {
+            recordedMillisByChunk.removeFirstLong();
+        }
+        setDirty();
+    }
+
+    int size() {
+        return recordedMillisByChunk.size();
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag, HolderLookup.Provider provider) {
+        final int n = recordedMillisByChunk.size();
+        final long[] chunks = new long[n];
+        final long[] recorded = new long[n];
+
+        int i = 0;
+        for (var e : recordedMillisByChunk.long2LongEntrySet()) {
+            chunks[i] = e.getLongKey();
+            recorded[i] = e.getLongValue();
+            i++;
+        }
+
+        tag.putInt("configHash", configHash);
+        tag.putLongArray("chunks", chunks);
+        tag.putLongArray("recordedMillis", recorded);
+        return tag;
+    }
+
+    public static RtpUnsafeChunkData load(CompoundTag tag, HolderLookup.Provider provider) {
+        final RtpUnsafeChunkData data = new RtpUnsafeChunkData();
+        data.configHash = tag.getInt("configHash");
+
+        final long[] chunks = tag.getLongArray("chunks");
+        final long[] recorded = tag.getLongArray("recordedMillis");
+        final int n = Math.min(chunks.length, recorded.length);
+        for (int i = 0; i < n; i++) {
+            data.recordedMillisByChunk.put(chunks[i], recorded[i]);
+        }
+        return data;
+    }
+}
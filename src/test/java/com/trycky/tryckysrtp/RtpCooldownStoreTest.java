@@ -0,0 +1,113 @@
+package com.trycky.tryckysrtp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RtpCooldownStoreTest {
+
+    private static final long NOW = 1_000_000L;
+
+    @Test
+    void putGetRemove() {
+        final RtpCooldownStore store = new RtpCooldownStore();
+        store.put(1L, 2L, NOW + 500);
+        assertEquals(NOW + 500, store.get(1L, 2L, NOW));
+        assertEquals(0L, store.get(2L, 1L, NOW));
+
+        store.put(1L, 2L, NOW + 900);
+        assertEquals(NOW + 900, store.get(1L, 2L, NOW));
+        assertEquals(1, store.size());
+
+        store.remove(1L, 2L);
+        assertEquals(0L, store.get(1L, 2L, NOW));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void putZeroRemoves() {
+        final RtpCooldownStore store = new RtpCooldownStore();
+        store.put(1L, 2L, NOW + 500);
+        store.put(1L, 2L, 0L);
+        assertEquals(0, store.size());
+        assertEquals(0L, store.get(1L, 2L, NOW));
+    }
+
+    @Test
+    void expiredEntryIsDroppedOnLookup() {
+        final RtpCooldownStore store = new RtpCooldownStore();
+        store.put(1L, 2L, NOW);
+        assertEquals(0L, store.get(1L, 2L, NOW));
+        assertEquals(0, store.size());
+    }
+
+    /** Random puts and removes (with growth, so many probe clusters) against a HashMap. */
+    @Test
+    void removalKeepsEveryOtherEntryReachable() {
+        final Random random = new Random(42L);
+        final RtpCooldownStore store = new RtpCooldownStore();
+        final Map<UUID, Long> expected = new HashMap<>();
+        final List<UUID> keys = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) keys.add(new UUID(random.nextLong(), random.nextLong()));
+
+        for (int op = 0; op < 50_000; op++) {
+            final UUID id = keys.get(random.nextInt(keys.size()));
+            if (random.nextInt(3) == 0) {
+                store.remove(id.getMostSignificantBits(), id.getLeastSignificantBits());
+                expected.remove(id);
+            } else {
+                final long value = NOW + 1 + random.nextInt(10_000);
+                store.put(id.getMostSignificantBits(), id.getLeastSignificantBits(), value);
+                expected.put(id, value);
+            }
+        }
+
+        assertEquals(expected.size(), store.size());
+        for (UUID id : keys) {
+            assertEquals(expected.getOrDefault(id, 0L).longValue(),
+                    store.get(id.getMostSignificantBits(), id.getLeastSignificantBits(), NOW), id.toString());
+        }
+    }
+
+    /** Keys with equal msb ^ lsb hash to the same slot: removing from the middle of that cluster must keep the tail. */
+    @Test
+    void removalInsideCollidingCluster() {
+        final RtpCooldownStore store = new RtpCooldownStore();
+        for (long i = 0; i < 10; i++) store.put(i, i, NOW + 100 + i);
+
+        store.remove(3L, 3L);
+        store.remove(0L, 0L);
+
+        assertEquals(8, store.size());
+        for (long i = 0; i < 10; i++) {
+            final long expected = (i == 0 || i == 3) ? 0L : NOW + 100 + i;
+            assertEquals(expected, store.get(i, i, NOW), "key " + i);
+        }
+    }
+
+    @Test
+    void purgeExpiredDropsOnlyExpiredAndShrinks() {
+        final RtpCooldownStore store = new RtpCooldownStore();
+        for (long i = 0; i < 1000; i++) store.put(i, ~i, (i % 100 == 0) ? NOW + 10 : NOW - 10);
+
+        store.purgeExpired(NOW);
+
+        assertEquals(10, store.size());
+        final int[] seen = {0};
+        store.forEach((msb, lsb, value) -> {
+            assertEquals(0L, msb % 100);
+            assertEquals(~msb, lsb);
+            assertEquals(NOW + 10, value);
+            seen[0]++;
+        });
+        assertEquals(10, seen[0]);
+        for (long i = 0; i < 1000; i += 100) assertEquals(NOW + 10, store.get(i, ~i, NOW));
+    }
+}
@@ -0,0 +1,80 @@
+package com.trycky.tryckysrtp;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RtpTemplateTest {
+
+    private static String[] values() {
+        return new String[RtpTemplate.PLACEHOLDER_COUNT];
+    }
+
+    private static String[] values(RtpTemplate.Placeholder p, String value) {
+        final String[] v = values();
+        v[p.ordinal()] = value;
+        return v;
+    }
+
+    @Test
+    void rendersPlaceholders() {
+        final String[] v = values();
+        v[RtpTemplate.Placeholder.PLAYER.ordinal()] = "Steve";
+        v[RtpTemplate.Placeholder.X.ordinal()] = "10";
+        v[RtpTemplate.Placeholder.Z.ordinal()] = "-20";
+
+        assertEquals("Steve went to 10, -20.", RtpTemplate.compile("%player% went to %x%, %z%.").render(v));
+    }
+
+    @Test
+    void missingValueKeepsPlaceholder() {
+        assertEquals("Wait %remaining%!", RtpTemplate.compile("Wait %remaining%!").render(values()));
+    }
+
+    @Test
+    void unknownTokenIsLiteral() {
+        final RtpTemplate t = RtpTemplate.compile("100% sure %nope% %x%");
+        assertEquals("100% sure %nope% 5", t.render(values(RtpTemplate.Placeholder.X, "5")));
+    }
+
+    @Test
+    void closingPercentCanOpenNextToken() {
+        // "50%" then "%x%": the '%' after 50 is not a token start, the next one is
+        assertEquals("50% 7", RtpTemplate.compile("50% %x%").render(values(RtpTemplate.Placeholder.X, "7")));
+        assertEquals("a%7", RtpTemplate.compile("a%%x%").render(values(RtpTemplate.Placeholder.X, "7")));
+    }
+
+    @Test
+    void substitutedValuesAreNotRescanned() {
+        final String[] v = values(RtpTemplate.Placeholder.PLAYER, "%x%");
+        v[RtpTemplate.Placeholder.X.ordinal()] = "1";
+        assertEquals("%x% 1", RtpTemplate.compile("%player% %x%").render(v));
+    }
+
+    @Test
+    void repeatedPlaceholder() {
+        assertEquals("ab ab", RtpTemplate.compile("%bar% %bar%").render(values(RtpTemplate.Placeholder.BAR, "ab")));
+    }
+
+    @Test
+    void emptyAndLiteralTemplates() {
+        assertSame(RtpTemplate.EMPTY, RtpTemplate.compile(null));
+        assertSame(RtpTemplate.EMPTY, RtpTemplate.compile(""));
+        assertTrue(RtpTemplate.EMPTY.isEmpty());
+
+        final RtpTemplate literal = RtpTemplate.compile("no placeholders");
+        assertFalse(literal.isEmpty());
+        assertEquals("no placeholders", literal.render(values()));
+        assertEquals("unterminated %x", RtpTemplate.compile("unterminated %x").render(values(RtpTemplate.Placeholder.X, "1")));
+    }
+
+    @Test
+    void usesReportsSlots() {
+        final RtpTemplate t = RtpTemplate.compile("%remaining_seconds%s");
+        assertTrue(t.uses(RtpTemplate.Placeholder.REMAINING_SECONDS));
+        assertFalse(t.uses(RtpTemplate.Placeholder.REMAINING));
+    }
+}
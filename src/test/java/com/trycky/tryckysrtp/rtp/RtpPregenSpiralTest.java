@@ -0,0 +1,106 @@
+package com.trycky.tryckysrtp.rtp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RtpPregenSpiralTest {
+
+    @Test
+    void ringStartIsOddSquares() {
+        assertEquals(0L, RtpPregenSpiral.ringStart(0));
+        assertEquals(1L, RtpPregenSpiral.ringStart(1));
+        assertEquals(9L, RtpPregenSpiral.ringStart(2));
+        assertEquals(25L, RtpPregenSpiral.ringStart(3));
+    }
+
+    @Test
+    void ringOfMatchesRingBoundaries() {
+        for (long k = 0; k < 200; k++) {
+            final long first = RtpPregenSpiral.ringStart(k);
+            final long last = RtpPregenSpiral.ringStart(k + 1) - 1;
+            assertEquals(k, RtpPregenSpiral.ringOf(first), "first index of ring " + k);
+            assertEquals(k, RtpPregenSpiral.ringOf(last), "last index of ring " + k);
+        }
+    }
+
+    @Test
+    void ringOfStaysExactForLargeIndexes() {
+        final long k = 3_000_000L;
+        assertEquals(k, RtpPregenSpiral.ringOf(RtpPregenSpiral.ringStart(k)));
+        assertEquals(k - 1, RtpPregenSpiral.ringOf(RtpPregenSpiral.ringStart(k) - 1));
+    }
+
+    @Test
+    void spiralCoversEachSquareOnceWithAdjacentSteps() {
+        final int rings = 20;
+        final long end = RtpPregenSpiral.ringStart(rings + 1);
+        final Set<Long> seen = new HashSet<>();
+
+        int prevX = 0, prevZ = 0;
+        for (long seq = 0; seq < end; seq++) {
+            final int x = RtpPregenSpiral.offsetX(seq);
+            final int z = RtpPregenSpiral.offsetZ(seq);
+            final long k = RtpPregenSpiral.ringOf(seq);
+
+            assertEquals(k, Math.max(Math.abs(x), Math.abs(z)), "index " + seq + " is on ring " + k);
+            assertTrue(seen.add(((long) x << 32) | (z & 0xFFFFFFFFL)), "index " + seq + " visits (" + x + ", " + z + ") twice");
+            // Within a ring every step moves to a neighbouring chunk
+            if (seq > RtpPregenSpiral.ringStart(k)) {
+                assertEquals(1, Math.abs(x - prevX) + Math.abs(z - prevZ), "step to index " + seq);
+            }
+            prevX = x;
+            prevZ = z;
+        }
+        assertEquals((2 * rings + 1) * (2 * rings + 1), seen.size());
+    }
+
+    @Test
+    void ringStartsAtTopLeftCorner() {
+        assertEquals(0, RtpPregenSpiral.offsetX(0));
+        assertEquals(0, RtpPregenSpiral.offsetZ(0));
+        assertEquals(-1, RtpPregenSpiral.offsetX(1));
+        assertEquals(-1, RtpPregenSpiral.offsetZ(1));
+        assertEquals(-2, RtpPregenSpiral.offsetX(9));
+        assertEquals(-2, RtpPregenSpiral.offsetZ(9));
+    }
+
+    @Test
+    void walkRangeHoldsEveryChunkOfTheRing() {
+        final int inner = 1000, outer = 1600;
+        final long first = RtpPregenSpiral.firstSeq(inner);
+        final long end = RtpPregenSpiral.endSeq(outer);
+
+        int walked = 0;
+        for (long seq = first; seq < end; seq++) {
+            if (RtpPregenSpiral.chunkIntersectsRing(RtpPregenSpiral.offsetX(seq), RtpPregenSpiral.offsetZ(seq), 8, 8, inner, outer)) walked++;
+        }
+
+        int expected = 0;
+        final int box = outer / 16 + 4;
+        for (int x = -box; x <= box; x++) {
+            for (int z = -box; z <= box; z++) {
+                if (RtpPregenSpiral.chunkIntersectsRing(x, z, 8, 8, inner, outer)) expected++;
+            }
+        }
+        assertEquals(expected, walked);
+    }
+
+    @Test
+    void chunkIntersectsRingUsesNearestAndFarthestColumns() {
+        // Chunk (0, 0) holds the centre: inside any outer radius, outside any inner radius above its corners
+        assertTrue(RtpPregenSpiral.chunkIntersectsRing(0, 0, 0, 0, 0, 10));
+        assertFalse(RtpPregenSpiral.chunkIntersectsRing(0, 0, 0, 0, 100, 200));
+        // Chunk (2, 0) spans x 32..47: reached by outer radius 32, not by 31
+        assertTrue(RtpPregenSpiral.chunkIntersectsRing(2, 0, 0, 0, 0, 32));
+        assertFalse(RtpPregenSpiral.chunkIntersectsRing(2, 0, 0, 0, 0, 31));
+        // Negative side: chunk (-3, 0) spans x -48..-33, z 0..15; its farthest column (-48, 15) is ~50.3 away
+        assertTrue(RtpPregenSpiral.chunkIntersectsRing(-3, 0, 0, 0, 50, 100));
+        assertFalse(RtpPregenSpiral.chunkIntersectsRing(-3, 0, 0, 0, 51, 100));
+    }
+}
@@ -0,0 +1,92 @@
+package com.trycky.tryckysrtp.rtp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RtpRankedColumnsTest {
+
+    /** Every column of the chunk in the area, column i scored i (so ranked in index order). */
+    private static RtpRankedColumns interiorChunk(int maxColumns) {
+        final int[] packed = new int[256];
+        for (int i = 0; i < 256; i++) packed[i] = RtpRankedColumns.pack(255 - i, 0, i);
+        return new RtpRankedColumns(packed, 256, maxColumns);
+    }
+
+    @Test
+    void validatesBestRankedFirst() {
+        final RtpRankedColumns columns = interiorChunk(4);
+        final List<Integer> seen = new ArrayList<>();
+        final Integer[] out = new Integer[4];
+
+        columns.validate(4, out, i -> { seen.add(i); return null; });
+
+        assertEquals(List.of(255, 254, 253, 252), seen);
+        assertTrue(columns.isComplete());
+    }
+
+    @Test
+    void fullyRejectedInteriorChunkIsRejectedOnlyAfterTheSweep() {
+        final RtpRankedColumns columns = interiorChunk(16);
+        final int[] checked = {0};
+        final RtpRankedColumns.Validator<Integer> none = i -> { checked[0]++; return null; };
+
+        assertEquals(0, columns.validate(16, new Integer[16], none));
+        // 16 of 256 columns checked: not enough to call the chunk unsafe
+        assertFalse(columns.allRejected());
+
+        assertNull(columns.sweepRest(none));
+        assertTrue(columns.allRejected());
+        assertEquals(256, checked[0]);
+    }
+
+    @Test
+    void sweepStopsAtFirstSafeColumn() {
+        final RtpRankedColumns columns = interiorChunk(16);
+        final RtpRankedColumns.Validator<Integer> only7 = i -> (i == 7) ? i : null;
+
+        assertEquals(0, columns.validate(16, new Integer[16], only7));
+        assertEquals(Integer.valueOf(7), columns.sweepRest(only7));
+        assertFalse(columns.allRejected());
+        assertEquals(1, columns.found());
+    }
+
+    @Test
+    void noSweepWhenRankedColumnsFoundSomething() {
+        final RtpRankedColumns columns = interiorChunk(16);
+        final RtpRankedColumns.Validator<Integer> all = i -> i;
+
+        assertEquals(16, columns.validate(16, new Integer[16], all));
+        assertNull(columns.sweepRest(all));
+        assertFalse(columns.allRejected());
+    }
+
+    @Test
+    void smallAreaIsRejectedWithoutSweep() {
+        final int[] packed = {RtpRankedColumns.pack(3, 0, 10), RtpRankedColumns.pack(1, 0, 20)};
+        final RtpRankedColumns columns = new RtpRankedColumns(packed, 2, 16);
+
+        assertEquals(0, columns.validate(16, new Integer[16], i -> null));
+        assertTrue(columns.allRejected());
+    }
+
+    @Test
+    void slicedValidationResumes() {
+        final RtpRankedColumns columns = interiorChunk(40);
+        final Integer[] out = new Integer[16];
+        int total = 0;
+        int slices = 0;
+        while (!columns.isComplete()) {
+            total += columns.validate(16, out, i -> i);
+            slices++;
+        }
+        assertEquals(40, total);
+        assertEquals(3, slices);
+    }
+}